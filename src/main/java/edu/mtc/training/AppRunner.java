@@ -7,6 +7,12 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 public class AppRunner {
 
   public static void main(String[] args) {
+    // garbage free logging keeps its buffers in thread locals, so with a new virtual thread per
+    // request it would allocate them for every request. Set before log4j starts.
+    if (Boolean.parseBoolean(System.getenv("VIRTUAL_THREADS"))
+        && System.getProperty("log4j2.enableThreadlocals") == null) {
+      System.setProperty("log4j2.enableThreadlocals", "false");
+    }
 
     SpringApplication.run(AppRunner.class, args);
   }
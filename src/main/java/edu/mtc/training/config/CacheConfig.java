@@ -0,0 +1,41 @@
+package edu.mtc.training.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * enables the read-through caches in front of single record lookups. The caches themselves are
+ * configured under spring.cache in application.yml.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+  public static final String PATIENTS = "patients";
+  public static final String ENCOUNTERS = "encounters";
+
+  /**
+   * makes every cache transaction aware, so an eviction inside a transaction waits until it
+   * commits. Otherwise a read between the eviction and the commit could cache the old row again,
+   * whichever of the cache and transaction interceptors runs first.
+   *
+   * @return post processor wrapping the cache manager
+   */
+  @Bean
+  static BeanPostProcessor transactionAwareCacheManager() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof CacheManager cacheManager
+            && !(bean instanceof TransactionAwareCacheManagerProxy)) {
+          return new TransactionAwareCacheManagerProxy(cacheManager);
+        }
+        return bean;
+      }
+    };
+  }
+}
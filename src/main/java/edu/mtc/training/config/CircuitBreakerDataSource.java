@@ -0,0 +1,87 @@
+package edu.mtc.training.config;
+
+import edu.mtc.training.constants.StringConstants;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * hands out connections through a circuit breaker. Every repository call, whether its transaction
+ * was opened by the repository or by a service, starts by taking a connection here, so when the
+ * database is down the breaker opens and callers fail at once instead of each waiting out the
+ * pool's connection timeout.
+ */
+public class CircuitBreakerDataSource extends DelegatingDataSource {
+
+  // connection exception class, which Hibernate translates to a JDBCConnectionException
+  static final String SQL_STATE_CONNECTION_REFUSED = "08001";
+  static final String SQL_STATE_CONNECTION_CLASS = "08";
+
+  private final CircuitBreaker circuitBreaker;
+
+  public CircuitBreakerDataSource(DataSource targetDataSource, CircuitBreaker circuitBreaker) {
+    super(targetDataSource);
+    this.circuitBreaker = circuitBreaker;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return acquire(() -> obtainTargetDataSource().getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return acquire(() -> obtainTargetDataSource().getConnection(username, password));
+  }
+
+  public CircuitBreaker getCircuitBreaker() {
+    return circuitBreaker;
+  }
+
+  /**
+   * tells a database that can't be reached from a pool that is only busy. Hikari times out a busy
+   * pool with a SQLTransientConnectionException that has no cause, and adds the last connection
+   * error as the cause when connecting failed. Only the latter, or a connection exception class
+   * SQLState, is recorded as a failure by the breaker.
+   *
+   * @param e exception thrown while taking a connection
+   * @return true if the exception is a failure to connect
+   */
+  public static boolean isConnectionFailure(Throwable e) {
+    if (!(e instanceof SQLException sqlException)) {
+      return false;
+    }
+    String sqlState = sqlException.getSQLState();
+    return sqlException.getCause() != null
+        || (sqlState != null && sqlState.startsWith(SQL_STATE_CONNECTION_CLASS));
+  }
+
+  private Connection acquire(ConnectionSupplier supplier) throws SQLException {
+    if (!circuitBreaker.tryAcquirePermission()) {
+      throw new SQLTransientConnectionException(StringConstants.SERVICE_UNAVAILABLE,
+          SQL_STATE_CONNECTION_REFUSED,
+          CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+    }
+
+    long start = System.nanoTime();
+    try {
+      Connection connection = supplier.get();
+      circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      return connection;
+    } catch (SQLException | RuntimeException e) {
+      circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+      throw e;
+    }
+  }
+
+  @FunctionalInterface
+  private interface ConnectionSupplier {
+
+    Connection get() throws SQLException;
+  }
+}
@@ -0,0 +1,72 @@
+package edu.mtc.training.config;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * puts a circuit breaker in front of the database connection pool. After enough failed connection
+ * attempts the breaker opens and every repository call fails at once with a 503. After the wait
+ * duration a few calls are let through to probe the database, and their outcome closes the breaker
+ * or opens it again. Only failures to connect are recorded, a pool that is merely busy is not. The
+ * breaker state is published as the resilience4j.circuitbreaker.state metric.
+ */
+@Configuration
+public class DatabaseCircuitBreakerConfig {
+
+  public static final String DATABASE = "database";
+
+  @Bean
+  public CircuitBreakerRegistry circuitBreakerRegistry(
+      @Value("${health.db.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+      @Value("${health.db.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+      @Value("${health.db.circuit-breaker.minimum-calls:10}") int minimumCalls,
+      @Value("${health.db.circuit-breaker.wait-in-open:10s}") Duration waitInOpen,
+      @Value("${health.db.circuit-breaker.half-open-calls:3}") int halfOpenCalls) {
+    return CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+        .failureRateThreshold(failureRateThreshold)
+        .slidingWindowSize(slidingWindowSize)
+        .minimumNumberOfCalls(minimumCalls)
+        .waitDurationInOpenState(waitInOpen)
+        .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+        .recordException(CircuitBreakerDataSource::isConnectionFailure)
+        .build());
+  }
+
+  @Bean
+  public CircuitBreaker databaseCircuitBreaker(CircuitBreakerRegistry circuitBreakerRegistry) {
+    return circuitBreakerRegistry.circuitBreaker(DATABASE);
+  }
+
+  @Bean
+  public TaggedCircuitBreakerMetrics circuitBreakerMetrics(
+      CircuitBreakerRegistry circuitBreakerRegistry) {
+    return TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry);
+  }
+
+  /**
+   * wraps the pool built by Spring Boot, so its settings and metrics are unchanged
+   */
+  @Bean
+  public static BeanPostProcessor circuitBreakerDataSourcePostProcessor(
+      ObjectProvider<CircuitBreaker> databaseCircuitBreaker) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource
+            && !(bean instanceof CircuitBreakerDataSource)) {
+          return new CircuitBreakerDataSource(dataSource, databaseCircuitBreaker.getObject());
+        }
+        return bean;
+      }
+    };
+  }
+}
@@ -0,0 +1,26 @@
+package edu.mtc.training.config;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * the schema is created and upgraded by the Flyway migrations in db/migration. Setting
+ * health.db.reset-on-start drops everything first, so tests that expect only the seed data can
+ * run against a database that outlives them. Never set it in production.
+ */
+@Configuration
+public class FlywayConfig {
+
+  @Bean
+  @ConditionalOnProperty("health.db.reset-on-start")
+  public FlywayMigrationStrategy resetThenMigrate() {
+    return flyway -> {
+      Flyway.configure().configuration(flyway.getConfiguration()).cleanDisabled(false).load()
+          .clean();
+      flyway.migrate();
+    };
+  }
+}
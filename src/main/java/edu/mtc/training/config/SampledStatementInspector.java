@@ -0,0 +1,35 @@
+package edu.mtc.training.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * logs one in every sampleRate statements Hibernate prepares, so the shape of normal traffic is
+ * visible without logging every statement. Statements are logged before their parameters are
+ * bound, so only ? placeholders appear, never values.
+ */
+public class SampledStatementInspector implements StatementInspector {
+
+  private static final Logger logger = LoggerFactory.getLogger(SampledStatementInspector.class);
+
+  private final long sampleRate;
+  private final AtomicLong statements = new AtomicLong();
+
+  /**
+   * @param sampleRate log every sampleRate-th statement, 0 or less to log none
+   */
+  public SampledStatementInspector(long sampleRate) {
+    this.sampleRate = sampleRate;
+  }
+
+  @Override
+  public String inspect(String sql) {
+    if (sampleRate > 0 && statements.incrementAndGet() % sampleRate == 0
+        && logger.isInfoEnabled()) {
+      logger.info("Sampled statement 1/{}: {}", sampleRate, sql);
+    }
+    return sql;
+  }
+}
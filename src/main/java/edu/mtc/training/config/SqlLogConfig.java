@@ -0,0 +1,22 @@
+package edu.mtc.training.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * replaces per statement SQL logging with a sample of normal statements. Slow statements are
+ * logged by Hibernate itself, see hibernate.log_slow_query in application.yml.
+ */
+@Configuration
+public class SqlLogConfig {
+
+  @Bean
+  public HibernatePropertiesCustomizer sampledStatementLog(
+      @Value("${health.sql.sample-rate:1000}") long sampleRate) {
+    return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+        new SampledStatementInspector(sampleRate));
+  }
+}
@@ -4,11 +4,13 @@ public class StringConstants {
 
   public static final String NOT_FOUND = "Not Found";
   public static final String SERVER_ERROR = "Server Error";
+  public static final String PRECONDITION_FAILED = "Precondition Failed";
   public static final String BAD_REQUEST = "Bad Request, check your input and try again";
   public static final String REQUIRED_FIELD = " is a required field ";
 
   public static final String ID_NOT_FOUND = "The id of the path parameter does not exist in the database ";
   public static final String EMAIL_CONFLICT = "The email address is already associated with another customer ";
+  public static final String VERSION_CONFLICT = "The entity has changed since it was read, get it again and reapply the update ";
   public static final String BAD_REQUEST_ID = "The id of the request body's entity must match the id of the path parameter ";
   public static final String BAD_REQUEST_FIRST_NAME = "Invalid first name ";
   public static final String BAD_REQUEST_LAST_NAME = "Invalid last name ";
@@ -27,5 +29,16 @@ public class StringConstants {
   public static final String UNEXPECTED_ERROR = "Unexpected Server Error";
   public static final String VALIDATION_ERROR = "Validation Error";
   public static final String INVALID_POSITIVE = "A positive value is required for this field";
+  public static final String BAD_REQUEST_CURSOR = "The after cursor is invalid, use the value of the X-Next-Cursor header ";
+  public static final String BAD_REQUEST_LIMIT = "Limit must be a positive number ";
+  public static final String BAD_REQUEST_DATE_RANGE = "The from date must not be after the to date ";
+  public static final String BAD_REQUEST_EMPTY_ROW = "The row is empty ";
+  public static final String BAD_REQUEST_BODY = "The request body could not be read ";
+  public static final String BAD_REQUEST_FIELDS = "The fields parameter names an unknown field ";
+  public static final String BAD_REQUEST_PATCH = "The patch must be a json object ";
+  public static final String BAD_REQUEST_PATCH_FIELD = "The patch cannot change the field ";
+  public static final String BAD_REQUEST_PATIENT = "The patient id does not exist in the database ";
+  public static final String BAD_REQUEST_PATIENT_SEARCH = "Search by lastName, by state, or by state and insurance ";
+  public static final String BAD_REQUEST_ENCOUNTER_SEARCH = "Search by patientId, provider, icd10 or date ";
 
 }
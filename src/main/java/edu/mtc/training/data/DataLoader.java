@@ -5,6 +5,7 @@ import edu.mtc.training.domains.encounters.EncounterRepository;
 import edu.mtc.training.domains.patients.Patient;
 import edu.mtc.training.domains.patients.PatientRepository;
 import java.util.Date;
+import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -18,13 +19,20 @@ public class DataLoader implements CommandLineRunner {
   @Autowired
   private EncounterRepository encounterRepository;
 
+  /**
+   * seeds a few patients and encounters into an empty database. The schema is no longer dropped on
+   * shutdown, so once any patient exists the data is left as it is.
+   */
   @Override
   public void run(String... args) throws Exception {
-    loadPatients();
-    loadEncounters();
+    if (patientRepository.count() > 0) {
+      return;
+    }
+    List<Patient> patients = loadPatients();
+    loadEncounters(patients.get(0).getId(), patients.get(1).getId());
   }
 
-  private void loadPatients() {
+  private List<Patient> loadPatients() {
     Patient patient0 = patientRepository.save(new Patient(
         "John",
         "Smith",
@@ -70,15 +78,16 @@ public class DataLoader implements CommandLineRunner {
         "None",
         "Other"));
 
+    return List.of(patient0, patient1, patient2);
   }
 
-  private void loadEncounters() {
+  private void loadEncounters(Long firstPatientId, Long secondPatientId) {
     Date date1 = new Date(2023, 02, 23);
     Date date2 = new Date(2023, 03, 12);
     Date date3 = new Date(2023, 04, 15);
 
     Encounter encounter1 = new Encounter();
-    encounter1.setPatientId(1L);
+    encounter1.setPatientId(firstPatientId);
     encounter1.setNotes("These are the notes for encounter 1");
     encounter1.setVisitCode("A1B 2C3");
     encounter1.setProvider("Provider");
@@ -94,7 +103,7 @@ public class DataLoader implements CommandLineRunner {
     encounterRepository.save(encounter1);
 
     Encounter encounter2 = new Encounter();
-    encounter2.setPatientId(1L);
+    encounter2.setPatientId(firstPatientId);
     encounter2.setNotes("These are the notes for encounter 2");
     encounter2.setVisitCode("X9Z 7G6");
     encounter2.setProvider("Walter");
@@ -110,7 +119,7 @@ public class DataLoader implements CommandLineRunner {
     encounterRepository.save(encounter2);
 
     Encounter encounter3 = new Encounter();
-    encounter3.setPatientId(1L);
+    encounter3.setPatientId(firstPatientId);
     encounter3.setNotes("Notes");
     encounter3.setVisitCode("A9G 6B4");
     encounter3.setProvider("River");
@@ -126,7 +135,7 @@ public class DataLoader implements CommandLineRunner {
     encounterRepository.save(encounter3);
 
     Encounter encounter4 = new Encounter();
-    encounter4.setPatientId(2L);
+    encounter4.setPatientId(secondPatientId);
     encounter4.setNotes("Notes");
     encounter4.setVisitCode("M8R 6Q6");
     encounter4.setProvider("Rocket");
@@ -142,7 +151,7 @@ public class DataLoader implements CommandLineRunner {
     encounterRepository.save(encounter4);
 
     Encounter encounter5 = new Encounter();
-    encounter5.setPatientId(2L);
+    encounter5.setPatientId(secondPatientId);
     encounter5.setNotes("Notes");
     encounter5.setVisitCode("U8H 6W4");
     encounter5.setProvider("Overlord");
@@ -0,0 +1,88 @@
+package edu.mtc.training.domains.billing;
+
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * holds billing summaries, each totalled by the database. Every method accepts an optional from
+ * and to date, yyyy-MM-dd, both included.
+ */
+@RestController
+@CrossOrigin(origins = "*")
+@RequestMapping(value = "/billing")
+public class BillingController {
+
+  private final BillingServiceImpl billingService;
+
+  public BillingController(BillingServiceImpl billingService) {
+    this.billingService = billingService;
+  }
+
+  /**
+   * totals encounter costs per patient
+   *
+   * @param from optional first date
+   * @param to   optional last date
+   * @return one summary per patient
+   */
+  @CrossOrigin(origins = "*")
+  @GetMapping("/patients")
+  public ResponseEntity<List<BillingSummary>> summarizeByPatient(
+      @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to) {
+    return new ResponseEntity<>(billingService.summarizeByPatient(from, to), HttpStatus.OK);
+  }
+
+  /**
+   * totals encounter costs per provider
+   *
+   * @param from optional first date
+   * @param to   optional last date
+   * @return one summary per provider
+   */
+  @CrossOrigin(origins = "*")
+  @GetMapping("/providers")
+  public ResponseEntity<List<BillingSummary>> summarizeByProvider(
+      @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to) {
+    return new ResponseEntity<>(billingService.summarizeByProvider(from, to), HttpStatus.OK);
+  }
+
+  /**
+   * totals encounter costs per billing code
+   *
+   * @param from optional first date
+   * @param to   optional last date
+   * @return one summary per billing code
+   */
+  @CrossOrigin(origins = "*")
+  @GetMapping("/billing-codes")
+  public ResponseEntity<List<BillingSummary>> summarizeByBillingCode(
+      @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to) {
+    return new ResponseEntity<>(billingService.summarizeByBillingCode(from, to), HttpStatus.OK);
+  }
+
+  /**
+   * totals encounter costs per calendar month
+   *
+   * @param from optional first date
+   * @param to   optional last date
+   * @return one summary per month, keyed yyyy-MM
+   */
+  @CrossOrigin(origins = "*")
+  @GetMapping("/months")
+  public ResponseEntity<List<BillingSummary>> summarizeByMonth(
+      @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to) {
+    return new ResponseEntity<>(billingService.summarizeByMonth(from, to), HttpStatus.OK);
+  }
+}
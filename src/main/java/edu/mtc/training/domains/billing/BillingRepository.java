@@ -0,0 +1,39 @@
+package edu.mtc.training.domains.billing;
+
+import edu.mtc.training.domains.encounters.Encounter;
+import java.util.Date;
+import java.util.List;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Read only repository that totals encounter costs with grouped aggregates, so only one row per
+ * group leaves the database. A null from or until leaves that end of the date range open.
+ */
+@Repository
+public interface BillingRepository
+    extends org.springframework.data.repository.Repository<Encounter, Long> {
+
+  String TOTALS = " count(e), sum(e.totalCost), sum(e.copay))"
+      + " from Encounter e"
+      + " where (:from is null or e.date >= :from) and (:until is null or e.date < :until)";
+
+  @Query("select new edu.mtc.training.domains.billing.BillingSummary(e.patientId," + TOTALS
+      + " group by e.patientId order by e.patientId")
+  List<BillingSummary> sumByPatient(@Param("from") Date from, @Param("until") Date until);
+
+  @Query("select new edu.mtc.training.domains.billing.BillingSummary(e.provider," + TOTALS
+      + " group by e.provider order by e.provider")
+  List<BillingSummary> sumByProvider(@Param("from") Date from, @Param("until") Date until);
+
+  @Query("select new edu.mtc.training.domains.billing.BillingSummary(e.billingCode," + TOTALS
+      + " group by e.billingCode order by e.billingCode")
+  List<BillingSummary> sumByBillingCode(@Param("from") Date from, @Param("until") Date until);
+
+  // dates are stored as UTC midnight, so the month is the same on every server
+  @Query("select new edu.mtc.training.domains.billing.BillingSummary(year(e.date),"
+      + " month(e.date)," + TOTALS
+      + " group by year(e.date), month(e.date) order by year(e.date), month(e.date)")
+  List<BillingSummary> sumByMonth(@Param("from") Date from, @Param("until") Date until);
+}
@@ -0,0 +1,18 @@
+package edu.mtc.training.domains.billing;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Billing service interface with encounter cost summaries
+ */
+public interface BillingService {
+
+  List<BillingSummary> summarizeByPatient(LocalDate from, LocalDate to);
+
+  List<BillingSummary> summarizeByProvider(LocalDate from, LocalDate to);
+
+  List<BillingSummary> summarizeByBillingCode(LocalDate from, LocalDate to);
+
+  List<BillingSummary> summarizeByMonth(LocalDate from, LocalDate to);
+}
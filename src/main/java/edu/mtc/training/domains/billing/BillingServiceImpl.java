@@ -0,0 +1,88 @@
+package edu.mtc.training.domains.billing;
+
+import edu.mtc.training.constants.StringConstants;
+import edu.mtc.training.exceptions.BadDataResponse;
+import edu.mtc.training.exceptions.ServiceUnavailable;
+import edu.mtc.training.helpers.UtcDates;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.function.BiFunction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * service class which implements BillingService interface
+ */
+@Service
+public class BillingServiceImpl implements BillingService {
+
+  private final BillingRepository billingRepository;
+
+  @Autowired
+  public BillingServiceImpl(BillingRepository billingRepository) {
+    this.billingRepository = billingRepository;
+  }
+
+  /**
+   * totals encounter costs per patient
+   *
+   * @param from optional first date
+   * @param to   optional last date, included
+   * @return one summary per patient, ordered by patient id
+   */
+  @Override
+  public List<BillingSummary> summarizeByPatient(LocalDate from, LocalDate to) {
+    return summarize(billingRepository::sumByPatient, from, to);
+  }
+
+  /**
+   * totals encounter costs per provider
+   *
+   * @param from optional first date
+   * @param to   optional last date, included
+   * @return one summary per provider, ordered by provider
+   */
+  @Override
+  public List<BillingSummary> summarizeByProvider(LocalDate from, LocalDate to) {
+    return summarize(billingRepository::sumByProvider, from, to);
+  }
+
+  /**
+   * totals encounter costs per billing code
+   *
+   * @param from optional first date
+   * @param to   optional last date, included
+   * @return one summary per billing code, ordered by billing code
+   */
+  @Override
+  public List<BillingSummary> summarizeByBillingCode(LocalDate from, LocalDate to) {
+    return summarize(billingRepository::sumByBillingCode, from, to);
+  }
+
+  /**
+   * totals encounter costs per calendar month
+   *
+   * @param from optional first date
+   * @param to   optional last date, included
+   * @return one summary per month keyed yyyy-MM, ordered by month
+   */
+  @Override
+  public List<BillingSummary> summarizeByMonth(LocalDate from, LocalDate to) {
+    return summarize(billingRepository::sumByMonth, from, to);
+  }
+
+  private static List<BillingSummary> summarize(
+      BiFunction<Date, Date, List<BillingSummary>> query, LocalDate from, LocalDate to) {
+    if (from != null && to != null && from.isAfter(to)) {
+      throw new BadDataResponse(StringConstants.BAD_REQUEST_DATE_RANGE);
+    }
+
+    try {
+      return query.apply(from == null ? null : UtcDates.startOf(from),
+          to == null ? null : UtcDates.endOf(to));
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
+    }
+  }
+}
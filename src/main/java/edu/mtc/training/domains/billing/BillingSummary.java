@@ -0,0 +1,95 @@
+package edu.mtc.training.domains.billing;
+
+import java.util.Objects;
+
+/**
+ * Totals of the encounters that share one key, such as a patient, a provider, a billing code or a
+ * month. Built by the database from grouped aggregates.
+ */
+public class BillingSummary {
+
+  private String key;
+  private long encounters;
+  private double totalCost;
+  private double copay;
+
+  public BillingSummary() {
+  }
+
+  public BillingSummary(String key, Long encounters, Double totalCost, Double copay) {
+    this.key = key;
+    this.encounters = encounters == null ? 0 : encounters;
+    // sum() is null when every value in the group is null
+    this.totalCost = totalCost == null ? 0 : totalCost;
+    this.copay = copay == null ? 0 : copay;
+  }
+
+  public BillingSummary(Long patientId, Long encounters, Double totalCost, Double copay) {
+    this(String.valueOf(patientId), encounters, totalCost, copay);
+  }
+
+  public BillingSummary(Integer year, Integer month, Long encounters, Double totalCost,
+      Double copay) {
+    this(String.format("%04d-%02d", year, month), encounters, totalCost, copay);
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public void setKey(String key) {
+    this.key = key;
+  }
+
+  public long getEncounters() {
+    return encounters;
+  }
+
+  public void setEncounters(long encounters) {
+    this.encounters = encounters;
+  }
+
+  public double getTotalCost() {
+    return totalCost;
+  }
+
+  public void setTotalCost(double totalCost) {
+    this.totalCost = totalCost;
+  }
+
+  public double getCopay() {
+    return copay;
+  }
+
+  public void setCopay(double copay) {
+    this.copay = copay;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof BillingSummary)) {
+      return false;
+    }
+    BillingSummary that = (BillingSummary) o;
+    return encounters == that.encounters && Double.compare(that.totalCost, totalCost) == 0
+        && Double.compare(that.copay, copay) == 0 && Objects.equals(key, that.key);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(key, encounters, totalCost, copay);
+  }
+
+  @Override
+  public String toString() {
+    return "BillingSummary{"
+        + "key='" + key + '\''
+        + ", encounters=" + encounters
+        + ", totalCost=" + totalCost
+        + ", copay=" + copay
+        + '}';
+  }
+}
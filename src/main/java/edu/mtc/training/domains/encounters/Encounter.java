@@ -8,20 +8,34 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import java.util.Date;
 import java.util.Objects;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.format.annotation.DateTimeFormat;
 
 /**
- * Encounter entity and its fields
+ * Encounter entity and its fields. Dirty checked updates write only the columns that changed.
  */
 @Entity
+@DynamicUpdate
+// the composite indexes also serve lookups by patient id or provider alone
+@Table(indexes = {
+    @Index(name = "ix_encounter_patient_date", columnList = "patientId, date"),
+    @Index(name = "ix_encounter_provider_date", columnList = "provider, date"),
+    @Index(name = "ix_encounter_icd10", columnList = "icd10"),
+    @Index(name = "ix_encounter_date", columnList = "date")})
 public class Encounter {
 
+  // a pooled sequence instead of identity columns lets hibernate batch inserts
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "encounter_seq")
+  @SequenceGenerator(name = "encounter_seq", sequenceName = "encounter_seq", allocationSize = 50)
   private Long id;
 
   @NotBlank(message = "Patient id" + StringConstants.REQUIRED_FIELD)
@@ -62,6 +76,11 @@ public class Encounter {
   @DateTimeFormat(pattern = "yyyy-MM-dd")
   private Date date;
 
+  // exposed to clients as the ETag, not as part of the body
+  @Version
+  @JsonIgnore
+  private Long version;
+
   public Encounter() {
   }
 
@@ -195,6 +214,14 @@ public class Encounter {
     this.date = date;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
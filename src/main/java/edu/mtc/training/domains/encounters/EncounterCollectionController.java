@@ -0,0 +1,112 @@
+package edu.mtc.training.domains.encounters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.mtc.training.helpers.BulkReport;
+import edu.mtc.training.helpers.Ndjson;
+import edu.mtc.training.helpers.PageCursor;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * holds methods for encounters that are not scoped to a single patient
+ */
+@RestController
+@CrossOrigin(origins = "*")
+@RequestMapping(value = "/encounters")
+public class EncounterCollectionController {
+
+  private final EncounterServiceImpl encounterService;
+
+  private final ObjectMapper objectMapper;
+
+  public EncounterCollectionController(EncounterServiceImpl encounterService,
+      ObjectMapper objectMapper) {
+    this.encounterService = encounterService;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * searches encounters of every patient by indexed columns. Give at least one of patientId,
+   * provider, icd10 and date.
+   *
+   * @param patientId id of patient
+   * @param provider  exact provider
+   * @param icd10     exact icd10 code
+   * @param date      date of the encounter, yyyy-MM-dd
+   * @param limit     maximum number of encounters to return
+   * @return List of matching encounters ordered by id
+   */
+  @CrossOrigin(origins = "*")
+  @GetMapping("/search")
+  public ResponseEntity<List<Encounter>> searchEncounters(
+      @RequestParam(required = false) Long patientId,
+      @RequestParam(required = false) String provider,
+      @RequestParam(required = false) String icd10,
+      @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date,
+      @RequestParam(defaultValue = "100") int limit) {
+    return new ResponseEntity<>(
+        encounterService.searchEncounters(patientId, provider, icd10, date, limit),
+        HttpStatus.OK);
+  }
+
+  /**
+   * returns one keyset page of a provider's encounters in a calendar month, ordered by date.
+   * When the page is full, the X-Next-Cursor header holds the token to pass as "after" for the
+   * next page.
+   *
+   * @param provider exact provider
+   * @param month    month of the encounters, yyyy-MM
+   * @param after    opaque cursor from a previous page, omit for the first page
+   * @param limit    maximum number of encounters to return
+   * @return List of the provider's encounters in the month
+   */
+  @CrossOrigin(origins = "*")
+  @GetMapping("/by-provider")
+  public ResponseEntity<List<Encounter>> getEncountersByProviderAndMonth(
+      @RequestParam String provider,
+      @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+      @RequestParam(required = false) String after,
+      @RequestParam(defaultValue = "100") int limit) {
+    return EncounterController.pageResponse(encounterService.queryEncountersByProviderAndMonth(
+        provider, month, PageCursor.decodeDateKey(after), limit), limit);
+  }
+
+  /**
+   * adds many encounters for any number of patients at once
+   *
+   * @param encounters encounters to be saved, each naming its patient
+   * @return report of created and rejected rows
+   */
+  @CrossOrigin(origins = "*")
+  @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<BulkReport> addEncounters(@RequestBody List<Encounter> encounters) {
+    return new ResponseEntity<>(encounterService.addEncounters(encounters), HttpStatus.OK);
+  }
+
+  /**
+   * adds many encounters for any number of patients at once from newline delimited json, one
+   * encounter per line
+   *
+   * @param body request body stream
+   * @return report of created and rejected rows
+   */
+  @CrossOrigin(origins = "*")
+  @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<BulkReport> addEncountersNdjson(InputStream body) {
+    List<Encounter> encounters = Ndjson.readAll(objectMapper, Encounter.class, body);
+    return new ResponseEntity<>(encounterService.addEncounters(encounters), HttpStatus.OK);
+  }
+}
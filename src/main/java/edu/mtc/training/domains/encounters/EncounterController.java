@@ -1,18 +1,39 @@
 package edu.mtc.training.domains.encounters;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import edu.mtc.training.helpers.BulkReport;
+import edu.mtc.training.helpers.EntityTags;
+import edu.mtc.training.helpers.MergePatch;
+import edu.mtc.training.helpers.Ndjson;
+import edu.mtc.training.helpers.PageCursor;
+import edu.mtc.training.helpers.SparseFields;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * holds crud methods for encounter entity
@@ -22,15 +43,23 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping(value = "/patients/{patientId}/encounters")
 public class EncounterController {
 
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
   @Autowired
   private final EncounterServiceImpl encounterService;
 
-  public EncounterController(EncounterServiceImpl encounterService) {
+  private final ObjectMapper objectMapper;
+  private final ObjectMapper sparseMapper;
+
+  public EncounterController(EncounterServiceImpl encounterService, ObjectMapper objectMapper) {
     this.encounterService = encounterService;
+    this.objectMapper = objectMapper;
+    this.sparseMapper = SparseFields.mapper(objectMapper, Encounter.class);
   }
 
   /**
-   * returns all encounters
+   * returns all encounters. The list carries an ETag, so a poll with a matching If-None-Match gets
+   * a 304 without the body being serialized.
    *
    * @return List of encounters associated with patient with matching id
    * @throws Exception
@@ -38,7 +67,97 @@ public class EncounterController {
   @CrossOrigin(origins = "*")
   @GetMapping()
   public ResponseEntity<List<Encounter>> getEncountersByPatientId(@PathVariable Long patientId) throws Exception {
-    return new ResponseEntity<>(encounterService.queryEncounterByPatientId(patientId), HttpStatus.OK);
+    List<Encounter> encounters = encounterService.queryEncounterByPatientId(patientId);
+    return ResponseEntity.ok()
+        .eTag(EntityTags.of(encounters, Encounter::getId, Encounter::getVersion)).body(encounters);
+  }
+
+  /**
+   * returns all encounters with only the requested fields, for example ?fields=date,provider. Only
+   * those columns are read and written, and the id is always included.
+   *
+   * @param patientId id of patient
+   * @param fields    comma separated field names
+   * @return json array of partial encounter objects
+   */
+  @CrossOrigin(origins = "*")
+  @GetMapping(params = "fields", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<byte[]> getEncounterFieldsByPatientId(@PathVariable Long patientId,
+      @RequestParam String fields) {
+    Set<String> selected = SparseFields.parse(fields, EncounterServiceImpl.SELECT_FIELDS);
+    List<Encounter> encounters = encounterService.queryEncounterFieldsByPatientId(patientId,
+        selected);
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+        .eTag(EntityTags.of(encounters, Encounter::getId, Encounter::getVersion))
+        .body(SparseFields.write(sparseMapper, encounters, selected));
+  }
+
+  /**
+   * returns one keyset page of the patient's encounters between two dates, both included,
+   * ordered by date. When the page is full, the X-Next-Cursor header holds the token to pass as
+   * "after" for the next page.
+   *
+   * @param patientId id of patient
+   * @param from      first date, yyyy-MM-dd
+   * @param to        last date, yyyy-MM-dd
+   * @param after     opaque cursor from a previous page, omit for the first page
+   * @param limit     maximum number of encounters to return
+   * @return List of encounters in the range
+   */
+  @CrossOrigin(origins = "*")
+  @GetMapping("/range")
+  public ResponseEntity<List<Encounter>> getEncountersInRange(@PathVariable Long patientId,
+      @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+      @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+      @RequestParam(required = false) String after,
+      @RequestParam(defaultValue = "100") int limit) {
+    return pageResponse(encounterService.queryEncountersByPatientIdAndDateRange(patientId, from,
+        to, PageCursor.decodeDateKey(after), limit), limit);
+  }
+
+  /**
+   * builds the response for one keyset page of encounters ordered by date, adding X-Next-Cursor
+   * when the page is full
+   *
+   * @param encounters encounters of the page
+   * @param limit      limit the page was read with
+   * @return the encounters of the page
+   */
+  static ResponseEntity<List<Encounter>> pageResponse(List<Encounter> encounters, int limit) {
+    HttpHeaders headers = new HttpHeaders();
+    // a full page means there may be more rows after it
+    if (!encounters.isEmpty()
+        && encounters.size() == Math.min(limit, EncounterServiceImpl.MAX_PAGE_SIZE)) {
+      Encounter last = encounters.get(encounters.size() - 1);
+      headers.add(NEXT_CURSOR_HEADER, PageCursor.encode(last.getDate(), last.getId()));
+    }
+    return new ResponseEntity<>(encounters, headers, HttpStatus.OK);
+  }
+
+  /**
+   * streams all encounters of a patient as newline delimited json, selected with Accept:
+   * application/x-ndjson. Rows are written as they are read from the database cursor, so the
+   * first bytes go out immediately and the full history is never held in memory.
+   *
+   * @return chunked stream of encounters associated with patient with matching id
+   */
+  @CrossOrigin(origins = "*")
+  @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamEncountersByPatientId(
+      @PathVariable Long patientId) {
+    ObjectWriter writer = objectMapper.writerFor(Encounter.class);
+
+    StreamingResponseBody body = outputStream -> encounterService.streamEncountersByPatientId(
+        patientId, encounter -> {
+          try {
+            outputStream.write(writer.writeValueAsBytes(encounter));
+            outputStream.write('\n');
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
   }
 
   /**
@@ -56,33 +175,87 @@ public class EncounterController {
   }
 
   /**
-   * returns encounter with matching id
+   * adds many encounters for the patient at once
+   *
+   * @param patientId  id of the patient
+   * @param encounters encounters to be saved
+   * @return report of created and rejected rows
+   */
+  @CrossOrigin(origins = "*")
+  @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<BulkReport> addEncounters(@PathVariable Long patientId,
+      @RequestBody List<Encounter> encounters) {
+    return new ResponseEntity<>(encounterService.addEncountersForPatient(patientId, encounters),
+        HttpStatus.OK);
+  }
+
+  /**
+   * adds many encounters for the patient at once from newline delimited json, one encounter per
+   * line
+   *
+   * @param patientId id of the patient
+   * @param body      request body stream
+   * @return report of created and rejected rows
+   */
+  @CrossOrigin(origins = "*")
+  @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<BulkReport> addEncountersNdjson(@PathVariable Long patientId,
+      InputStream body) {
+    List<Encounter> encounters = Ndjson.readAll(objectMapper, Encounter.class, body);
+    return new ResponseEntity<>(encounterService.addEncountersForPatient(patientId, encounters),
+        HttpStatus.OK);
+  }
+
+  /**
+   * returns encounter with matching id, with its version as the ETag
    *
    * @param encounterId id of encounter to retrieve
-   * @return encounter upon success
+   * @return encounter and its ETag upon success
    * @throws Exception
    */
   @CrossOrigin(origins = "*")
   @GetMapping("/{encounterId}")
   public ResponseEntity<Encounter> getEncounterById(@PathVariable Long encounterId)
       throws Exception {
-    return new ResponseEntity<>(encounterService.getEncounterById(encounterId), HttpStatus.OK);
+    Encounter encounter = encounterService.getEncounterById(encounterId);
+    return ResponseEntity.ok().eTag(EntityTags.of(encounter.getVersion())).body(encounter);
   }
 
   /**
-   * updates an encounter
+   * updates an encounter. An If-Match header makes the update conditional on the ETag the client
+   * last saw, and fails with 412 if the encounter has changed since.
    *
    * @param encounterId id of encounter to update
+   * @param ifMatch     ETag of the version the update is based on, optional
    * @param encounter   encounter with new values
-   * @return updated encounter if successful
-   * @throws Exception
+   * @return updated encounter and its new ETag if successful
    */
   @CrossOrigin(origins = "*")
   @PutMapping("/{encounterId}")
   public ResponseEntity<Encounter> updateEncounter(@PathVariable Long encounterId,
-      @RequestBody Encounter encounter)
-      throws Exception {
-    return new ResponseEntity<>(encounterService.updateEncounterById(encounterId, encounter),
-        HttpStatus.OK);
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @RequestBody Encounter encounter) {
+    Encounter updated = encounterService.updateEncounterById(encounterId, encounter,
+        EntityTags.version(ifMatch));
+    return ResponseEntity.ok().eTag(EntityTags.of(updated.getVersion())).body(updated);
+  }
+
+  /**
+   * changes only the fields present in a json merge patch. An If-Match header makes the patch
+   * conditional on the ETag the client last saw.
+   *
+   * @param encounterId id of encounter to patch
+   * @param ifMatch     ETag of the version the patch is based on, optional
+   * @param patch       merge patch with the fields to change
+   * @return patched encounter and its new ETag if successful
+   */
+  @CrossOrigin(origins = "*")
+  @PatchMapping(value = "/{encounterId}", consumes = MergePatch.MEDIA_TYPE)
+  public ResponseEntity<Encounter> patchEncounter(@PathVariable Long encounterId,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @RequestBody JsonNode patch) {
+    Encounter patched = encounterService.patchEncounterById(encounterId, patch,
+        EntityTags.version(ifMatch));
+    return ResponseEntity.ok().eTag(EntityTags.of(patched.getVersion())).body(patched);
   }
 }
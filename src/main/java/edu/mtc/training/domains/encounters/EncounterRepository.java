@@ -1,14 +1,122 @@
 package edu.mtc.training.domains.encounters;
 
+import jakarta.persistence.QueryHint;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
  * Encounter repository to store encounters
  */
 @Repository
-public interface EncounterRepository extends JpaRepository<Encounter, Long> {
+public interface EncounterRepository extends JpaRepository<Encounter, Long>,
+    EncounterRepositoryCustom {
+
+  // rows after the (date, id) key. The first condition bounds the index range, the second skips
+  // the rows of that date already returned
+  String AFTER_DATE_KEY = " and e.date >= :afterDate and (e.date > :afterDate or e.id > :afterId)"
+      + " order by e.date, e.id";
+
+  String UPDATE_ALL = "update Encounter e set e.patientId = :#{#encounter.patientId},"
+      + " e.notes = :#{#encounter.notes}, e.visitCode = :#{#encounter.visitCode},"
+      + " e.provider = :#{#encounter.provider}, e.billingCode = :#{#encounter.billingCode},"
+      + " e.icd10 = :#{#encounter.icd10}, e.totalCost = :#{#encounter.totalCost},"
+      + " e.copay = :#{#encounter.copay}, e.chiefComplaint = :#{#encounter.chiefComplaint},"
+      + " e.pulse = :#{#encounter.pulse}, e.systolic = :#{#encounter.systolic},"
+      + " e.diastolic = :#{#encounter.diastolic}, e.date = :#{#encounter.date},"
+      + " e.version = e.version + 1"
+      + " where e.id = :#{#encounter.id}";
 
   List<Encounter> findEncountersByPatientId(Long id);
+
+  /**
+   * streams encounters for a patient from a database cursor. Must be consumed inside a transaction
+   * and closed afterwards.
+   *
+   * @param patientId id of the patient
+   * @return stream of encounters ordered by id
+   */
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+  @Query("select e from Encounter e where e.patientId = :patientId order by e.id")
+  Stream<Encounter> streamEncountersByPatientId(@Param("patientId") Long patientId);
+
+  /**
+   * one keyset page of a patient's encounters in a date range, ordered by date then id. The index
+   * on (patientId, date) seeks straight to the date of the key, so every page costs the same.
+   *
+   * @param patientId id of the patient
+   * @param from      first date included
+   * @param until     first date excluded
+   * @param afterDate date of the last encounter already returned, from for the first page
+   * @param afterId   id of the last encounter already returned, 0 for the first page
+   * @param limit     maximum number of encounters to return
+   * @return next page of encounters
+   */
+  @Query("select e from Encounter e where e.patientId = :patientId"
+      + " and e.date >= :from and e.date < :until" + AFTER_DATE_KEY)
+  List<Encounter> findByPatientIdInRange(@Param("patientId") Long patientId,
+      @Param("from") Date from, @Param("until") Date until, @Param("afterDate") Date afterDate,
+      @Param("afterId") Long afterId, Limit limit);
+
+  /**
+   * one keyset page of a provider's encounters in a date range, ordered by date then id, served
+   * by the (provider, date) index
+   *
+   * @param provider  exact provider
+   * @param from      first date included
+   * @param until     first date excluded
+   * @param afterDate date of the last encounter already returned, from for the first page
+   * @param afterId   id of the last encounter already returned, 0 for the first page
+   * @param limit     maximum number of encounters to return
+   * @return next page of encounters
+   */
+  @Query("select e from Encounter e where e.provider = :provider"
+      + " and e.date >= :from and e.date < :until" + AFTER_DATE_KEY)
+  List<Encounter> findByProviderInRange(@Param("provider") String provider,
+      @Param("from") Date from, @Param("until") Date until, @Param("afterDate") Date afterDate,
+      @Param("afterId") Long afterId, Limit limit);
+
+  /**
+   * reads only the version of an encounter, without loading the row into the persistence context
+   *
+   * @param id id of the encounter
+   * @return the current version, empty if the encounter does not exist
+   */
+  @Query("select e.version from Encounter e where e.id = :id")
+  Optional<Long> findVersionById(@Param("id") Long id);
+
+  /**
+   * overwrites an encounter and bumps its version in a single statement, only if the stored
+   * version still matches
+   *
+   * @param encounter encounter carrying the id and the new values
+   * @param version   version the caller last saw
+   * @return 1 if the encounter was updated, 0 if it does not exist or the version has moved on
+   */
+  @Modifying
+  @Query(UPDATE_ALL + " and e.version = :version")
+  int updateIfVersion(@Param("encounter") Encounter encounter, @Param("version") Long version);
+
+  /**
+   * overwrites an encounter and bumps its version in a single statement, whatever the stored
+   * version. For updates without a precondition, so a concurrent update is overwritten rather
+   * than failing.
+   *
+   * @param encounter encounter carrying the id and the new values
+   * @return 1 if the encounter was updated, 0 if it does not exist
+   */
+  @Modifying
+  @Query(UPDATE_ALL)
+  int updateAnyVersion(@Param("encounter") Encounter encounter);
 }
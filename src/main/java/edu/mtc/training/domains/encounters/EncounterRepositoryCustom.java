@@ -0,0 +1,19 @@
+package edu.mtc.training.domains.encounters;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * encounter queries that spring data cannot derive
+ */
+public interface EncounterRepositoryCustom {
+
+  /**
+   * encounters of a patient ordered by id with only the given fields loaded
+   *
+   * @param fields    fields to select, always including id
+   * @param patientId id of the patient
+   * @return partially loaded encounters
+   */
+  List<Encounter> findFieldsByPatientId(Set<String> fields, Long patientId);
+}
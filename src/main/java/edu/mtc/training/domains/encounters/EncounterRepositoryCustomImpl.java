@@ -0,0 +1,24 @@
+package edu.mtc.training.domains.encounters;
+
+import edu.mtc.training.helpers.SparseFields;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * criteria based implementation of the custom encounter queries
+ */
+public class EncounterRepositoryCustomImpl implements EncounterRepositoryCustom {
+
+  private final EntityManager entityManager;
+
+  public EncounterRepositoryCustomImpl(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public List<Encounter> findFieldsByPatientId(Set<String> fields, Long patientId) {
+    return SparseFields.select(entityManager, Encounter.class, fields,
+        (builder, root) -> builder.equal(root.get("patientId"), patientId), 0);
+  }
+}
@@ -1,6 +1,13 @@
 package edu.mtc.training.domains.encounters;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import edu.mtc.training.helpers.BulkReport;
+import edu.mtc.training.helpers.PageCursor;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Encounter service interface with crud methods for an encounter
@@ -11,10 +18,29 @@ public interface EncounterService {
 
   List<Encounter> queryEncounterByPatientId(Long patientId) throws Exception;
 
+  List<Encounter> queryEncounterFieldsByPatientId(Long patientId, Set<String> fields);
+
+  List<Encounter> searchEncounters(Long patientId, String provider, String icd10, LocalDate date,
+      int limit);
+
+  List<Encounter> queryEncountersByPatientIdAndDateRange(Long patientId, LocalDate from,
+      LocalDate to, PageCursor.DateKey after, int limit);
+
+  List<Encounter> queryEncountersByProviderAndMonth(String provider, YearMonth month,
+      PageCursor.DateKey after, int limit);
+
+  void streamEncountersByPatientId(Long patientId, Consumer<Encounter> consumer);
+
   Encounter getEncounterById(Long id) throws Exception;
 
   Encounter addEncounter(Encounter encounter) throws Exception;
 
-  Encounter updateEncounterById(Long id, Encounter encounter) throws Exception;
+  BulkReport addEncounters(List<Encounter> encounters);
+
+  BulkReport addEncountersForPatient(Long patientId, List<Encounter> encounters);
+
+  Encounter updateEncounterById(Long id, Encounter encounter, Long expectedVersion);
+
+  Encounter patchEncounterById(Long id, JsonNode patch, Long expectedVersion);
 
 }
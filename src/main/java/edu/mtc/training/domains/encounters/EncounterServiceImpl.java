@@ -1,14 +1,43 @@
 package edu.mtc.training.domains.encounters;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.mtc.training.config.CacheConfig;
 import edu.mtc.training.constants.StringConstants;
+import edu.mtc.training.domains.patients.PatientRepository;
 import edu.mtc.training.exceptions.BadDataResponse;
+import edu.mtc.training.exceptions.PreconditionFailed;
 import edu.mtc.training.exceptions.ResourceNotFound;
 import edu.mtc.training.exceptions.ServiceUnavailable;
+import edu.mtc.training.helpers.BulkReport;
+import edu.mtc.training.helpers.MergePatch;
+import edu.mtc.training.helpers.PageCursor;
+import edu.mtc.training.helpers.UtcDates;
+import edu.mtc.training.helpers.ValidationErrors;
+import jakarta.persistence.EntityManager;
 import jakarta.validation.Valid;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 /**
  * service class which implements EncounterService interface
@@ -16,13 +45,37 @@ import org.springframework.stereotype.Service;
 @Service
 public class EncounterServiceImpl implements EncounterService {
 
+  static final int MAX_PAGE_SIZE = 1000;
+  static final int PATIENT_LOOKUP_SIZE = 1000;
+
+  static final Set<String> PATCH_FIELDS = Set.of("patientId", "notes", "visitCode", "provider",
+      "billingCode", "icd10", "totalCost", "copay", "chiefComplaint", "pulse", "systolic",
+      "diastolic", "date");
+  static final Set<String> OPTIONAL_FIELDS = Set.of("notes", "pulse", "systolic", "diastolic");
+
+  // fields a list request may select with ?fields=
+  static final Set<String> SELECT_FIELDS = Set.of("id", "patientId", "notes", "visitCode",
+      "provider", "billingCode", "icd10", "totalCost", "copay", "chiefComplaint", "pulse",
+      "systolic", "diastolic", "date");
+
   private final EncounterRepository encounterRepository;
+  private final PatientRepository patientRepository;
+  private final EntityManager entityManager;
+  private final EncounterValidator encounterValidator;
+  private final ObjectMapper objectMapper;
 
-  private String errorMessage = "";
+  @Value("${health.bulk.batch-size:50}")
+  private int bulkBatchSize = 50;
 
   @Autowired
-  public EncounterServiceImpl(EncounterRepository encounterRepository) {
+  public EncounterServiceImpl(EncounterRepository encounterRepository,
+      PatientRepository patientRepository, EntityManager entityManager,
+      EncounterValidator encounterValidator, ObjectMapper objectMapper) {
     this.encounterRepository = encounterRepository;
+    this.patientRepository = patientRepository;
+    this.entityManager = entityManager;
+    this.encounterValidator = encounterValidator;
+    this.objectMapper = objectMapper;
   }
 
   /**
@@ -70,13 +123,156 @@ public class EncounterServiceImpl implements EncounterService {
   }
 
   /**
-   * returns encounter with matching id
+   * returns all encounters of a patient, loading only the given columns
+   *
+   * @param patientId id of patient
+   * @param fields    fields to select, as parsed from the fields parameter
+   * @return partially loaded encounters ordered by id
+   */
+  @Override
+  public List<Encounter> queryEncounterFieldsByPatientId(Long patientId, Set<String> fields) {
+    try {
+      List<Encounter> encounters = encounterRepository.findFieldsByPatientId(fields, patientId);
+      if (!encounters.isEmpty()) {
+        return encounters;
+      }
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
+    }
+
+    throw new ResourceNotFound(StringConstants.NOT_FOUND);
+  }
+
+  /**
+   * searches encounters by indexed columns only. Each of patient id, provider, icd10 and date has
+   * its own index, so any combination with at least one of them is accepted.
+   *
+   * @param patientId optional id of patient
+   * @param provider  optional exact provider
+   * @param icd10     optional exact icd10 code
+   * @param date      optional date of the encounter
+   * @param limit     maximum number of encounters to return, capped at MAX_PAGE_SIZE
+   * @return matching encounters ordered by id
+   */
+  @Override
+  public List<Encounter> searchEncounters(Long patientId, String provider, String icd10,
+      LocalDate date, int limit) {
+    Encounter probe = new Encounter();
+    probe.setPatientId(patientId);
+    probe.setProvider(StringUtils.hasText(provider) ? provider : null);
+    probe.setIcd10(StringUtils.hasText(icd10) ? icd10 : null);
+    probe.setDate(date == null ? null : UtcDates.startOf(date));
+
+    if (probe.getPatientId() == null && probe.getProvider() == null && probe.getIcd10() == null
+        && probe.getDate() == null) {
+      throw new BadDataResponse(StringConstants.BAD_REQUEST_ENCOUNTER_SEARCH);
+    }
+    if (limit < 1) {
+      throw new BadDataResponse(StringConstants.BAD_REQUEST_LIMIT);
+    }
+
+    try {
+      return encounterRepository.findBy(Example.of(probe),
+          query -> query.sortBy(Sort.by("id")).limit(Math.min(limit, MAX_PAGE_SIZE)).all());
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
+    }
+  }
+
+  /**
+   * gets one keyset page of a patient's encounters between two dates, both included
+   *
+   * @param patientId id of patient
+   * @param from      first date
+   * @param to        last date
+   * @param after     date and id of the last encounter of the previous page, null for the first
+   * @param limit     maximum number of encounters to return, capped at MAX_PAGE_SIZE
+   * @return encounters ordered by date, then id
+   */
+  @Override
+  public List<Encounter> queryEncountersByPatientIdAndDateRange(Long patientId, LocalDate from,
+      LocalDate to, PageCursor.DateKey after, int limit) {
+    if (from.isAfter(to)) {
+      throw new BadDataResponse(StringConstants.BAD_REQUEST_DATE_RANGE);
+    }
+    if (limit < 1) {
+      throw new BadDataResponse(StringConstants.BAD_REQUEST_LIMIT);
+    }
+    Date start = UtcDates.startOf(from);
+
+    try {
+      return encounterRepository.findByPatientIdInRange(patientId, start, UtcDates.endOf(to),
+          after == null ? start : after.date(), after == null ? 0L : after.id(),
+          Limit.of(Math.min(limit, MAX_PAGE_SIZE)));
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
+    }
+  }
+
+  /**
+   * gets one keyset page of a provider's encounters in a calendar month
+   *
+   * @param provider exact provider
+   * @param month    month of the encounters
+   * @param after    date and id of the last encounter of the previous page, null for the first
+   * @param limit    maximum number of encounters to return, capped at MAX_PAGE_SIZE
+   * @return encounters ordered by date, then id
+   */
+  @Override
+  public List<Encounter> queryEncountersByProviderAndMonth(String provider, YearMonth month,
+      PageCursor.DateKey after, int limit) {
+    if (!StringUtils.hasText(provider)) {
+      throw new BadDataResponse(StringConstants.BAD_REQUEST_ENCOUNTER_SEARCH);
+    }
+    if (limit < 1) {
+      throw new BadDataResponse(StringConstants.BAD_REQUEST_LIMIT);
+    }
+    Date start = UtcDates.startOf(month);
+
+    try {
+      return encounterRepository.findByProviderInRange(provider, start, UtcDates.endOf(month),
+          after == null ? start : after.date(), after == null ? 0L : after.id(),
+          Limit.of(Math.min(limit, MAX_PAGE_SIZE)));
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
+    }
+  }
+
+  /**
+   * feeds every encounter of a patient to the consumer straight from a database cursor. Each
+   * encounter is detached once consumed so the persistence context never holds the full history.
+   *
+   * @param patientId id of patient
+   * @param consumer  receives each encounter in id order
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public void streamEncountersByPatientId(Long patientId, Consumer<Encounter> consumer) {
+    Stream<Encounter> encounters;
+
+    try {
+      encounters = encounterRepository.streamEncountersByPatientId(patientId);
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
+    }
+
+    try (encounters) {
+      encounters.forEach(encounter -> {
+        consumer.accept(encounter);
+        entityManager.detach(encounter);
+      });
+    }
+  }
+
+  /**
+   * returns encounter with matching id, served from the encounters cache after the first read
    *
    * @param id id of encounter to retrieve
    * @return encounter with matching id
    * @throws Exception
    */
   @Override
+  @Cacheable(cacheNames = CacheConfig.ENCOUNTERS, key = "#id")
   public Encounter getEncounterById(Long id) throws Exception {
     try {
       Encounter encounter = (Encounter) encounterRepository.findById(id).orElse(null);
@@ -100,92 +296,265 @@ public class EncounterServiceImpl implements EncounterService {
   @Override
   public Encounter addEncounter(@Valid Encounter encounter) throws Exception {
 
-    if (!validateEncounter(encounter)) {
-      throw new BadDataResponse(errorMessage);
+    ValidationErrors errors = encounterValidator.validate(encounter);
+    if (!errors.isEmpty()) {
+      throw new BadDataResponse(errors.getMessage());
     }
 
+    // the foreign key is the check that the patient exists
     try {
       return encounterRepository.save(encounter);
+    } catch (DataIntegrityViolationException e) {
+      throw new BadDataResponse(StringConstants.BAD_REQUEST_PATIENT);
     } catch (Exception e) {
       throw new ServiceUnavailable(e);
     }
   }
 
   /**
-   * updates an encounter with matching id
+   * adds encounters for any number of patients in one transaction. Rows are validated in
+   * parallel, the referenced patient ids are checked with set based queries, and the accepted
+   * rows are inserted in jdbc batches. Rejected rows are reported instead of failing the whole
+   * import.
    *
-   * @param id        id of encounter to update
-   * @param encounter encounter with updated information
-   * @return updated encounter on success
-   * @throws Exception
+   * @param encounters encounters to be added, each naming its patient
+   * @return report of created and rejected rows
+   */
+  @Override
+  @Transactional
+  public BulkReport addEncounters(List<Encounter> encounters) {
+    return importEncounters(null, encounters);
+  }
+
+  /**
+   * adds encounters for a single patient in one transaction. Rows without a patient id are
+   * assigned to the patient in the path and rows naming a different patient are rejected.
+   *
+   * @param patientId  id of the patient in the path
+   * @param encounters encounters to be added
+   * @return report of created and rejected rows
    */
   @Override
-  public Encounter updateEncounterById(Long id, @Valid Encounter encounter) throws Exception {
+  @Transactional
+  public BulkReport addEncountersForPatient(Long patientId, List<Encounter> encounters) {
+    boolean patientExists;
 
-    Encounter existingEncounter;
+    try {
+      patientExists = patientRepository.existsById(patientId);
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
+    }
 
-    // check if id in path matches id in request body
-    if (!encounter.getId().equals(id)) {
-      throw new BadDataResponse(StringConstants.BAD_REQUEST_ID);
+    if (!patientExists) {
+      throw new ResourceNotFound(StringConstants.NOT_FOUND);
+    }
+
+    return importEncounters(patientId, encounters);
+  }
+
+  private BulkReport importEncounters(Long pathPatientId, List<Encounter> encounters) {
+    BulkReport report = new BulkReport(encounters.size());
+
+    // validation is cpu bound and independent per row
+    String[] rowErrors = new String[encounters.size()];
+    IntStream.range(0, encounters.size()).parallel()
+        .forEach(row -> rowErrors[row] = validateRow(encounters.get(row), pathPatientId));
+
+    Set<Long> patientIds = new HashSet<>();
+    for (int row = 0; row < encounters.size(); row++) {
+      if (rowErrors[row] == null) {
+        patientIds.add(encounters.get(row).getPatientId());
+      }
     }
 
-    if (!validateEncounter(encounter)) {
-      throw new BadDataResponse(errorMessage);
+    Set<Long> existingPatientIds =
+        pathPatientId != null ? Set.of(pathPatientId) : findExistingPatientIds(patientIds);
+
+    List<Encounter> batch = new ArrayList<>(bulkBatchSize);
+    for (int row = 0; row < encounters.size(); row++) {
+      Encounter encounter = encounters.get(row);
+      if (rowErrors[row] != null) {
+        report.reject(row, rowErrors[row]);
+        continue;
+      }
+      if (!existingPatientIds.contains(encounter.getPatientId())) {
+        report.reject(row, StringConstants.BAD_REQUEST_PATIENT);
+        continue;
+      }
+
+      encounter.setId(null);
+      batch.add(encounter);
+      report.setCreated(report.getCreated() + 1);
+      if (batch.size() == bulkBatchSize) {
+        insertBatch(batch);
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      insertBatch(batch);
+    }
+
+    return report;
+  }
+
+  private String validateRow(Encounter encounter, Long pathPatientId) {
+    if (encounter == null) {
+      return StringConstants.BAD_REQUEST_EMPTY_ROW;
+    }
+
+    if (encounter.getPatientId() == null && pathPatientId != null) {
+      encounter.setPatientId(pathPatientId);
+    }
+    if (encounter.getPatientId() == null) {
+      return "Patient id" + StringConstants.REQUIRED_FIELD;
+    }
+    if (pathPatientId != null && !pathPatientId.equals(encounter.getPatientId())) {
+      return StringConstants.BAD_REQUEST_ID;
     }
 
     try {
+      ValidationErrors errors = encounterValidator.validate(encounter);
+      return errors.isEmpty() ? null : errors.getMessage();
+    } catch (RuntimeException e) {
+      // a missing required field
+      return StringConstants.BAD_REQUEST;
+    }
+  }
 
-      // get the existing encounter from the database
-      existingEncounter = encounterRepository.findById(id).orElse(null);
-    } catch (ServiceUnavailable e) {
+  private Set<Long> findExistingPatientIds(Set<Long> patientIds) {
+    Set<Long> existing = new HashSet<>();
+    List<Long> chunk = new ArrayList<>(PATIENT_LOOKUP_SIZE);
+
+    try {
+      for (Long patientId : patientIds) {
+        chunk.add(patientId);
+        if (chunk.size() == PATIENT_LOOKUP_SIZE) {
+          existing.addAll(patientRepository.findExistingIds(chunk));
+          chunk.clear();
+        }
+      }
+      if (!chunk.isEmpty()) {
+        existing.addAll(patientRepository.findExistingIds(chunk));
+      }
+    } catch (Exception e) {
       throw new ServiceUnavailable(e);
     }
 
-    // if the encounter exists, call the addEncounter method to save it to the database
-    if (existingEncounter != null) {
-      return this.addEncounter(encounter);
-    } else {
-      throw new ResourceNotFound(StringConstants.NOT_FOUND);
+    return existing;
+  }
+
+  private void insertBatch(List<Encounter> batch) {
+    try {
+      encounterRepository.saveAll(batch);
+      encounterRepository.flush();
+      // written rows are not needed again, keep the persistence context small
+      entityManager.clear();
+    } catch (DataIntegrityViolationException e) {
+      // a patient deleted after the existence check
+      throw new BadDataResponse(StringConstants.BAD_REQUEST_PATIENT);
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
     }
   }
 
-  private Boolean validateEncounter(Encounter encounter) {
-    errorMessage = "";
+  /**
+   * updates an encounter with matching id with a single update statement. With an expected
+   * version the update only applies to that version and fails with 412 otherwise. Without one the
+   * update applies to whatever version is stored, and the new version is read back afterwards.
+   *
+   * @param id              id of encounter to update
+   * @param encounter       encounter with updated information
+   * @param expectedVersion version from the If-Match header, null to update the current version
+   * @return updated encounter, carrying its new version, on success
+   */
+  @Override
+  @Transactional
+  @CacheEvict(cacheNames = CacheConfig.ENCOUNTERS, key = "#id")
+  public Encounter updateEncounterById(Long id, @Valid Encounter encounter, Long expectedVersion) {
+    boolean exists;
 
-    if (encounter.getVisitCode().isEmpty()) {
-      errorMessage += ("Visit code" + StringConstants.REQUIRED_FIELD);
-    } else if (!encounter.getVisitCode().matches("^[a-zA-Z][0-9][a-zA-Z] [0-9][a-zA-Z][0-9]$")) {
-      errorMessage += "Invalid visit code ";
+    // check if id in path matches id in request body
+    if (!encounter.getId().equals(id)) {
+      throw new BadDataResponse(StringConstants.BAD_REQUEST_ID);
     }
 
-    if (encounter.getProvider().isEmpty()) {
-      errorMessage += ("Provider" + StringConstants.REQUIRED_FIELD);
+    ValidationErrors errors = encounterValidator.validate(encounter);
+    if (!errors.isEmpty()) {
+      throw new BadDataResponse(errors.getMessage());
     }
 
-    if (encounter.getBillingCode().isEmpty()) {
-      errorMessage += ("Billing code" + StringConstants.REQUIRED_FIELD);
-    } else if (!encounter.getBillingCode().matches("^[0-9]{3}.[0-9]{3}.[0-9]{3}-[0-9]{2}$")) {
-      errorMessage += "Invalid billing code ";
+    try {
+      if (expectedVersion == null) {
+        // the update holds the row lock, so the version read next is the one it wrote
+        if (encounterRepository.updateAnyVersion(encounter) == 1) {
+          encounter.setVersion(encounterRepository.findVersionById(id).orElse(null));
+          return encounter;
+        }
+        exists = false;
+      } else if (encounterRepository.updateIfVersion(encounter, expectedVersion) == 1) {
+        encounter.setVersion(expectedVersion + 1);
+        return encounter;
+      } else {
+        // only a failed update pays for telling a missing encounter from a stale version
+        exists = encounterRepository.existsById(id);
+      }
+    } catch (DataIntegrityViolationException e) {
+      throw new BadDataResponse(StringConstants.BAD_REQUEST_PATIENT);
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
     }
 
-    if (encounter.getIcd10().isEmpty()) {
-      errorMessage += ("Icd10" + StringConstants.REQUIRED_FIELD);
-    } else if (!encounter.getIcd10().matches("^[a-zA-Z][0-9]{2}$")) {
-      errorMessage += "Invalid icd10 ";
+    if (exists) {
+      throw new PreconditionFailed(StringConstants.VERSION_CONFLICT);
     }
+    throw new ResourceNotFound(StringConstants.NOT_FOUND);
+  }
+
+  /**
+   * applies a json merge patch to an encounter. Only the touched fields are validated, and since
+   * the entity uses dynamic updates the flush writes only the columns that changed, guarded by
+   * the version.
+   *
+   * @param id              id of encounter to patch
+   * @param patch           merge patch with the fields to change
+   * @param expectedVersion version from the If-Match header, null to patch the current version
+   * @return patched encounter, carrying its new version, on success
+   */
+  @Override
+  @Transactional
+  @CacheEvict(cacheNames = CacheConfig.ENCOUNTERS, key = "#id")
+  public Encounter patchEncounterById(Long id, JsonNode patch, Long expectedVersion) {
+    Encounter encounter;
 
-    if (!(encounter.getTotalCost() > 0.0)) {
-      errorMessage += ("Total cost" + StringConstants.REQUIRED_FIELD);
+    try {
+      encounter = encounterRepository.findById(id).orElse(null);
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
     }
 
-    if (encounter.getChiefComplaint().isEmpty()) {
-      errorMessage += ("Chief complaint" + StringConstants.REQUIRED_FIELD);
+    if (encounter == null) {
+      throw new ResourceNotFound(StringConstants.NOT_FOUND);
+    }
+    if (expectedVersion != null && !expectedVersion.equals(encounter.getVersion())) {
+      throw new PreconditionFailed(StringConstants.VERSION_CONFLICT);
     }
 
-    if (encounter.getDate() == null) {
-      errorMessage += ("Date" + StringConstants.REQUIRED_FIELD);
+    Set<String> touched = MergePatch.apply(objectMapper, encounter, patch, PATCH_FIELDS,
+        OPTIONAL_FIELDS);
+    ValidationErrors errors = encounterValidator.validate(encounter, touched);
+    if (!errors.isEmpty()) {
+      throw new BadDataResponse(errors.getMessage());
     }
 
-    return errorMessage.isEmpty();
+    try {
+      encounterRepository.flush();
+      return encounter;
+    } catch (OptimisticLockingFailureException e) {
+      throw new PreconditionFailed(StringConstants.VERSION_CONFLICT);
+    } catch (DataIntegrityViolationException e) {
+      throw new BadDataResponse(StringConstants.BAD_REQUEST_PATIENT);
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
+    }
   }
 }
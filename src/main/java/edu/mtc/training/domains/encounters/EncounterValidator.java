@@ -0,0 +1,81 @@
+package edu.mtc.training.domains.encounters;
+
+import edu.mtc.training.helpers.FieldFormats;
+import edu.mtc.training.helpers.ValidationErrors;
+import java.util.Set;
+import org.springframework.stereotype.Component;
+
+/**
+ * validation rules for an encounter, shared by every path that writes encounters
+ */
+@Component
+public class EncounterValidator {
+
+  /**
+   * checks every field of an encounter
+   *
+   * @param encounter encounter to validate
+   * @return the errors found, empty if the encounter is valid
+   */
+  public ValidationErrors validate(Encounter encounter) {
+    return validate(encounter, null);
+  }
+
+  /**
+   * checks only the given fields of an encounter, so a partial update pays for the fields it
+   * changed
+   *
+   * @param encounter encounter to validate
+   * @param fields    json names of the fields to check, null to check every field
+   * @return the errors found, empty if the checked fields are valid
+   */
+  public ValidationErrors validate(Encounter encounter, Set<String> fields) {
+    ValidationErrors errors = new ValidationErrors();
+
+    if (checks(fields, "visitCode")) {
+      if (encounter.getVisitCode().isEmpty()) {
+        errors.addRequired("Visit code");
+      } else if (!FieldFormats.isVisitCode(encounter.getVisitCode())) {
+        errors.add("Invalid visit code ");
+      }
+    }
+
+    if (checks(fields, "provider") && encounter.getProvider().isEmpty()) {
+      errors.addRequired("Provider");
+    }
+
+    if (checks(fields, "billingCode")) {
+      if (encounter.getBillingCode().isEmpty()) {
+        errors.addRequired("Billing code");
+      } else if (!FieldFormats.isBillingCode(encounter.getBillingCode())) {
+        errors.add("Invalid billing code ");
+      }
+    }
+
+    if (checks(fields, "icd10")) {
+      if (encounter.getIcd10().isEmpty()) {
+        errors.addRequired("Icd10");
+      } else if (!FieldFormats.isIcd10(encounter.getIcd10())) {
+        errors.add("Invalid icd10 ");
+      }
+    }
+
+    if (checks(fields, "totalCost") && !(encounter.getTotalCost() > 0.0)) {
+      errors.addRequired("Total cost");
+    }
+
+    if (checks(fields, "chiefComplaint") && encounter.getChiefComplaint().isEmpty()) {
+      errors.addRequired("Chief complaint");
+    }
+
+    if (checks(fields, "date") && encounter.getDate() == null) {
+      errors.addRequired("Date");
+    }
+
+    return errors;
+  }
+
+  private static boolean checks(Set<String> fields, String field) {
+    return fields == null || fields.contains(field);
+  }
+}
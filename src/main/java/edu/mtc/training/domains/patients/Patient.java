@@ -7,19 +7,35 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import java.util.Objects;
+import org.hibernate.annotations.DynamicUpdate;
 
 /**
- * Patient entity and its fields
+ * Patient entity and its fields. Dirty checked updates write only the columns that changed.
  */
 @Entity
+@DynamicUpdate
+@Table(uniqueConstraints = @UniqueConstraint(name = Patient.EMAIL_CONSTRAINT,
+    columnNames = "email"),
+    indexes = {
+        @Index(name = "ix_patient_last_name", columnList = "lastName"),
+        @Index(name = "ix_patient_state_insurance", columnList = "state, insurance")})
 public class Patient {
 
+  public static final String EMAIL_CONSTRAINT = "uk_patient_email";
+
+  // a pooled sequence instead of identity columns lets hibernate batch inserts
   @Id
   @Column(name = "patientId", nullable = false)
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_seq")
+  @SequenceGenerator(name = "patient_seq", sequenceName = "patient_seq", allocationSize = 50)
   private Long id;
 
   @NotBlank(message = "First Name" + StringConstants.REQUIRED_FIELD)
@@ -36,7 +52,6 @@ public class Patient {
 
   @NotBlank(message = "Email" + StringConstants.REQUIRED_FIELD)
   @Pattern(regexp = "^[a-zA-Z0-9]+@[a-zA-Z]+\\.[a-zA-Z]+$", message = StringConstants.BAD_REQUEST_EMAIL)
-  @Column(unique = true)
   private String email;
 
   @NotBlank(message = "Street Address" + StringConstants.REQUIRED_FIELD)
@@ -71,6 +86,11 @@ public class Patient {
   @NotBlank(message = "Gender" + StringConstants.REQUIRED_FIELD)
   private String gender;
 
+  // exposed to clients as the ETag, not as part of the body
+  @Version
+  @JsonIgnore
+  private Long version;
+
   public Patient() {
   }
 
@@ -204,6 +224,14 @@ public class Patient {
     this.gender = gender;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -1,19 +1,38 @@
 package edu.mtc.training.domains.patients;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import edu.mtc.training.helpers.BulkReport;
+import edu.mtc.training.helpers.EntityTags;
+import edu.mtc.training.helpers.MergePatch;
+import edu.mtc.training.helpers.Ndjson;
+import edu.mtc.training.helpers.PageCursor;
+import edu.mtc.training.helpers.SparseFields;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * holds crud methods for patient entity
@@ -23,22 +42,121 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping(value = "/patients")
 public class PatientController {
 
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
   @Autowired
   private final PatientServiceImpl patientService;
 
-  public PatientController(PatientServiceImpl patientService) {
+  private final ObjectMapper objectMapper;
+  private final ObjectMapper sparseMapper;
+
+  public PatientController(PatientServiceImpl patientService, ObjectMapper objectMapper) {
     this.patientService = patientService;
+    this.objectMapper = objectMapper;
+    this.sparseMapper = SparseFields.mapper(objectMapper, Patient.class);
   }
 
   /**
-   * provides all patients
+   * provides one page of patients ordered by id. When the page is full the X-Next-Cursor header
+   * holds the token to pass as "after" for the next page. The page carries an ETag, so a poll with
+   * a matching If-None-Match gets a 304 without the body being serialized.
    *
-   * @return List of all patient objects
+   * @param after opaque cursor from a previous page, omit for the first page
+   * @param limit maximum number of patients to return
+   * @return List of patient objects
    */
   @CrossOrigin(origins = "*")
   @GetMapping()
-  public ResponseEntity<List<Patient>> getAllPatients() {
-    return new ResponseEntity<>(patientService.queryPatients(new Patient()), HttpStatus.OK);
+  public ResponseEntity<List<Patient>> getAllPatients(
+      @RequestParam(required = false) String after,
+      @RequestParam(defaultValue = "100") int limit) {
+    List<Patient> patients = patientService.queryPatientPage(PageCursor.decode(after), limit);
+    return pageResponse(patients, limit).body(patients);
+  }
+
+  /**
+   * provides one page of patients with only the requested fields, for example
+   * ?fields=firstName,lastName,age. Only those columns are read and written, and the id is always
+   * included. Paging and ETags work as for the full page.
+   *
+   * @param fields comma separated field names
+   * @param after  opaque cursor from a previous page, omit for the first page
+   * @param limit  maximum number of patients to return
+   * @return json array of partial patient objects
+   */
+  @CrossOrigin(origins = "*")
+  @GetMapping(params = "fields", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<byte[]> getAllPatientFields(@RequestParam String fields,
+      @RequestParam(required = false) String after,
+      @RequestParam(defaultValue = "100") int limit) {
+    Set<String> selected = SparseFields.parse(fields, PatientServiceImpl.SELECT_FIELDS);
+    List<Patient> patients = patientService.queryPatientPageFields(selected,
+        PageCursor.decode(after), limit);
+    return pageResponse(patients, limit).contentType(MediaType.APPLICATION_JSON)
+        .body(SparseFields.write(sparseMapper, patients, selected));
+  }
+
+  /**
+   * starts the response for one page of patients with its ETag, adding X-Next-Cursor when the
+   * page is full
+   *
+   * @param patients page of patients
+   * @param limit    limit the page was asked for
+   * @return response builder ready for the body
+   */
+  static ResponseEntity.BodyBuilder pageResponse(List<Patient> patients, int limit) {
+    HttpHeaders headers = new HttpHeaders();
+    // a full page means there may be more rows after it
+    if (!patients.isEmpty()
+        && patients.size() == Math.min(limit, PatientServiceImpl.MAX_PAGE_SIZE)) {
+      headers.add(NEXT_CURSOR_HEADER,
+          PageCursor.encode(patients.get(patients.size() - 1).getId()));
+    }
+    return ResponseEntity.ok().headers(headers)
+        .eTag(EntityTags.of(patients, Patient::getId, Patient::getVersion));
+  }
+
+  /**
+   * searches patients by indexed columns. Give lastName, state, or state and insurance.
+   *
+   * @param lastName  exact last name
+   * @param state     two character state code
+   * @param insurance exact insurance provider, only together with state
+   * @param limit     maximum number of patients to return
+   * @return List of matching patients ordered by id
+   */
+  @CrossOrigin(origins = "*")
+  @GetMapping("/search")
+  public ResponseEntity<List<Patient>> searchPatients(
+      @RequestParam(required = false) String lastName,
+      @RequestParam(required = false) String state,
+      @RequestParam(required = false) String insurance,
+      @RequestParam(defaultValue = "100") int limit) {
+    return new ResponseEntity<>(patientService.searchPatients(lastName, state, insurance, limit),
+        HttpStatus.OK);
+  }
+
+  /**
+   * streams every patient as newline delimited json, selected with Accept: application/x-ndjson.
+   * Patients are read one keyset page at a time so memory use does not grow with the table.
+   *
+   * @return chunked stream of patient objects
+   */
+  @CrossOrigin(origins = "*")
+  @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamAllPatients() {
+    ObjectWriter writer = objectMapper.writerFor(Patient.class);
+
+    StreamingResponseBody body = outputStream -> patientService.streamPatients(patient -> {
+      try {
+        outputStream.write(writer.writeValueAsBytes(patient));
+        outputStream.write('\n');
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
   }
 
   /**
@@ -54,29 +172,79 @@ public class PatientController {
   }
 
   /**
-   * returns patient with matching id
+   * adds many patients at once from a json array
+   *
+   * @param patients patients to be added
+   * @return report of created and rejected rows
+   */
+  @CrossOrigin(origins = "*")
+  @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<BulkReport> addPatients(@RequestBody List<Patient> patients) {
+    return new ResponseEntity<>(patientService.addPatients(patients), HttpStatus.OK);
+  }
+
+  /**
+   * adds many patients at once from newline delimited json, one patient per line
+   *
+   * @param body request body stream
+   * @return report of created and rejected rows
+   */
+  @CrossOrigin(origins = "*")
+  @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<BulkReport> addPatientsNdjson(InputStream body) {
+    List<Patient> patients = Ndjson.readAll(objectMapper, Patient.class, body);
+    return new ResponseEntity<>(patientService.addPatients(patients), HttpStatus.OK);
+  }
+
+  /**
+   * returns patient with matching id. Its version is the ETag, so a poll with a matching
+   * If-None-Match gets a 304 without the body being serialized.
    *
    * @param patientId Long id of the patient to be retrieved
-   * @return patient if successful
+   * @return patient and its ETag if successful
    */
   @CrossOrigin(origins = "*")
   @GetMapping("/{patientId}")
   public ResponseEntity<Patient> getPatientById(@PathVariable Long patientId) {
-    return new ResponseEntity<>(patientService.getPatientById(patientId), HttpStatus.OK);
+    Patient patient = patientService.getPatientById(patientId);
+    return ResponseEntity.ok().eTag(EntityTags.of(patient.getVersion())).body(patient);
   }
 
   /**
-   * updates a patient in the repository
+   * updates a patient in the repository. An If-Match header makes the update conditional on the
+   * ETag the client last saw, and fails with 412 if the patient has changed since.
    *
    * @param patientId Long id of patient to be updated
+   * @param ifMatch   ETag of the version the update is based on, optional
    * @param patient   Patient to be updated
-   * @return updated patient if successful
+   * @return updated patient and its new ETag if successful
    */
   @CrossOrigin(origins = "*")
   @PutMapping("/{patientId}")
   public ResponseEntity<Patient> updatePatient(@PathVariable Long patientId,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
       @RequestBody Patient patient) {
-    return new ResponseEntity<>(patientService.updatePatient(patientId, patient), HttpStatus.OK);
+    Patient updated = patientService.updatePatient(patientId, patient,
+        EntityTags.version(ifMatch));
+    return ResponseEntity.ok().eTag(EntityTags.of(updated.getVersion())).body(updated);
+  }
+
+  /**
+   * changes only the fields present in a json merge patch. An If-Match header makes the patch
+   * conditional on the ETag the client last saw.
+   *
+   * @param patientId Long id of patient to be patched
+   * @param ifMatch   ETag of the version the patch is based on, optional
+   * @param patch     merge patch with the fields to change
+   * @return patched patient and its new ETag if successful
+   */
+  @CrossOrigin(origins = "*")
+  @PatchMapping(value = "/{patientId}", consumes = MergePatch.MEDIA_TYPE)
+  public ResponseEntity<Patient> patchPatient(@PathVariable Long patientId,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @RequestBody JsonNode patch) {
+    Patient patched = patientService.patchPatient(patientId, patch, EntityTags.version(ifMatch));
+    return ResponseEntity.ok().eTag(EntityTags.of(patched.getVersion())).body(patched);
   }
 
   /**
@@ -1,14 +1,105 @@
 package edu.mtc.training.domains.patients;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
  * Patient repository to store patients
  */
 @Repository
-public interface PatientRepository extends JpaRepository<Patient, Long> {
+public interface PatientRepository extends JpaRepository<Patient, Long>,
+    PatientRepositoryCustom {
+
+  String UPDATE_ALL = "update Patient p set p.firstName = :#{#patient.firstName},"
+      + " p.lastName = :#{#patient.lastName}, p.ssn = :#{#patient.ssn},"
+      + " p.email = :#{#patient.email}, p.street = :#{#patient.street},"
+      + " p.city = :#{#patient.city}, p.state = :#{#patient.state},"
+      + " p.postal = :#{#patient.postal}, p.age = :#{#patient.age},"
+      + " p.height = :#{#patient.height}, p.weight = :#{#patient.weight},"
+      + " p.insurance = :#{#patient.insurance}, p.gender = :#{#patient.gender},"
+      + " p.version = p.version + 1"
+      + " where p.id = :#{#patient.id}";
 
   Boolean existsByEmail(String email);
 
+  /**
+   * keyset page of patients ordered by id, starting after the given id
+   *
+   * @param id    id of the last patient already returned, 0 for the first page
+   * @param limit maximum number of patients to return
+   * @return next page of patients
+   */
+  List<Patient> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+  /**
+   * finds which of the given emails are already taken, in a single query
+   *
+   * @param emails emails to check
+   * @return the subset of emails that already belong to a patient
+   */
+  @Query("select p.email from Patient p where p.email in :emails")
+  Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+  /**
+   * finds which of the given ids belong to a patient, in a single query
+   *
+   * @param ids patient ids to check
+   * @return the subset of ids that exist
+   */
+  @Query("select p.id from Patient p where p.id in :ids")
+  Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+  /**
+   * deletes a patient only if no encounter references it. The guard is an exists subquery in the
+   * same statement, so no encounter rows are read.
+   *
+   * @param id id of the patient to delete
+   * @return 1 if the patient was deleted, 0 if it does not exist or still has encounters
+   */
+  @Modifying
+  @Query("delete from Patient p where p.id = :id"
+      + " and not exists (select 1 from Encounter e where e.patientId = :id)")
+  int deleteIfNoEncounters(@Param("id") Long id);
+
+  /**
+   * reads only the version of a patient, without loading the row into the persistence context
+   *
+   * @param id id of the patient
+   * @return the current version, empty if the patient does not exist
+   */
+  @Query("select p.version from Patient p where p.id = :id")
+  Optional<Long> findVersionById(@Param("id") Long id);
+
+  /**
+   * overwrites a patient and bumps its version in a single statement, only if the stored version
+   * still matches. Nothing is read first, so a concurrent update makes this affect no rows instead
+   * of being silently lost.
+   *
+   * @param patient patient carrying the id and the new values
+   * @param version version the caller last saw
+   * @return 1 if the patient was updated, 0 if it does not exist or the version has moved on
+   */
+  @Modifying
+  @Query(UPDATE_ALL + " and p.version = :version")
+  int updateIfVersion(@Param("patient") Patient patient, @Param("version") Long version);
+
+  /**
+   * overwrites a patient and bumps its version in a single statement, whatever the stored version.
+   * For updates without a precondition, so a concurrent update is overwritten rather than failing.
+   *
+   * @param patient patient carrying the id and the new values
+   * @return 1 if the patient was updated, 0 if it does not exist
+   */
+  @Modifying
+  @Query(UPDATE_ALL)
+  int updateAnyVersion(@Param("patient") Patient patient);
+
 }
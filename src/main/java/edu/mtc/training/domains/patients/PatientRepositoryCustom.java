@@ -0,0 +1,20 @@
+package edu.mtc.training.domains.patients;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * patient queries that spring data cannot derive
+ */
+public interface PatientRepositoryCustom {
+
+  /**
+   * keyset page of patients ordered by id with only the given fields loaded
+   *
+   * @param fields fields to select, always including id
+   * @param id     id of the last patient already returned, 0 for the first page
+   * @param limit  maximum number of patients to return
+   * @return next page of partially loaded patients
+   */
+  List<Patient> findFieldsByIdGreaterThan(Set<String> fields, Long id, int limit);
+}
@@ -0,0 +1,24 @@
+package edu.mtc.training.domains.patients;
+
+import edu.mtc.training.helpers.SparseFields;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * criteria based implementation of the custom patient queries
+ */
+public class PatientRepositoryCustomImpl implements PatientRepositoryCustom {
+
+  private final EntityManager entityManager;
+
+  public PatientRepositoryCustomImpl(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public List<Patient> findFieldsByIdGreaterThan(Set<String> fields, Long id, int limit) {
+    return SparseFields.select(entityManager, Patient.class, fields,
+        (builder, root) -> builder.greaterThan(root.get("id"), id), limit);
+  }
+}
@@ -1,6 +1,10 @@
 package edu.mtc.training.domains.patients;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import edu.mtc.training.helpers.BulkReport;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Patient service interface with crud methods for a patient
@@ -9,11 +13,23 @@ public interface PatientService {
 
   List<Patient> queryPatients(Patient patient);
 
+  List<Patient> queryPatientPage(Long afterId, int limit);
+
+  List<Patient> queryPatientPageFields(Set<String> fields, Long afterId, int limit);
+
+  List<Patient> searchPatients(String lastName, String state, String insurance, int limit);
+
+  void streamPatients(Consumer<Patient> consumer);
+
   Patient addPatient(Patient patient);
 
+  BulkReport addPatients(List<Patient> patients);
+
   Patient getPatientById(Long patientId);
 
-  Patient updatePatient(Long patientId, Patient patient);
+  Patient updatePatient(Long patientId, Patient patient, Long expectedVersion);
+
+  Patient patchPatient(Long patientId, JsonNode patch, Long expectedVersion);
 
   void deletePatient(Long patientId);
 
@@ -1,17 +1,40 @@
 package edu.mtc.training.domains.patients;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.mtc.training.config.CacheConfig;
 import edu.mtc.training.constants.StringConstants;
-import edu.mtc.training.domains.encounters.EncounterRepository;
 import edu.mtc.training.exceptions.BadDataResponse;
+import edu.mtc.training.exceptions.PreconditionFailed;
 import edu.mtc.training.exceptions.ResourceNotFound;
 import edu.mtc.training.exceptions.ServiceUnavailable;
 import edu.mtc.training.exceptions.UniqueFieldViolation;
-import edu.mtc.training.helpers.ValidStates;
+import edu.mtc.training.helpers.BulkReport;
+import edu.mtc.training.helpers.MergePatch;
+import edu.mtc.training.helpers.ValidationErrors;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 /**
  * service class that implements the PatientService interface
@@ -19,16 +42,37 @@ import org.springframework.stereotype.Service;
 @Service
 public class PatientServiceImpl implements PatientService {
 
+  static final int MAX_PAGE_SIZE = 1000;
+  static final int STREAM_BATCH_SIZE = 500;
+  static final int EMAIL_LOOKUP_SIZE = 1000;
+
+  // age, height and weight are primitives, so a probe would otherwise match them against 0
+  private static final ExampleMatcher SEARCH_MATCHER =
+      ExampleMatcher.matching().withIgnorePaths("age", "height", "weight");
+
+  // every field is required, so a patch may change any of them but never clear one
+  static final Set<String> PATCH_FIELDS = Set.of("firstName", "lastName", "ssn", "email",
+      "street", "city", "state", "postal", "age", "height", "weight", "insurance", "gender");
+
+  // fields a list request may select with ?fields=
+  static final Set<String> SELECT_FIELDS = Set.of("id", "firstName", "lastName", "ssn", "email",
+      "street", "city", "state", "postal", "age", "height", "weight", "insurance", "gender");
+
   private final PatientRepository patientRepository;
-  private final EncounterRepository encounterRepository;
+  private final PatientValidator patientValidator;
+  private final EntityManager entityManager;
+  private final ObjectMapper objectMapper;
 
-  private String errorMessage = "";
+  @Value("${health.bulk.batch-size:50}")
+  private int bulkBatchSize = 50;
 
   @Autowired
   public PatientServiceImpl(PatientRepository patientRepository,
-      EncounterRepository encounterRepository) {
+      PatientValidator patientValidator, EntityManager entityManager, ObjectMapper objectMapper) {
     this.patientRepository = patientRepository;
-    this.encounterRepository = encounterRepository;
+    this.patientValidator = patientValidator;
+    this.entityManager = entityManager;
+    this.objectMapper = objectMapper;
   }
 
   /**
@@ -54,222 +98,415 @@ public class PatientServiceImpl implements PatientService {
   }
 
   /**
-   * adds patient to repository
+   * gets one keyset page of patients ordered by id
    *
-   * @param patient patient to be added
-   * @return patient if successful
+   * @param afterId id of the last patient of the previous page, null or 0 for the first page
+   * @param limit   maximum number of patients to return, capped at MAX_PAGE_SIZE
+   * @return page of patients
    */
   @Override
-  public Patient addPatient(Patient patient) {
-    boolean emailAlreadyExists;
-
-    if (!validatePatient(patient)) {
-      throw new BadDataResponse(errorMessage);
+  public List<Patient> queryPatientPage(Long afterId, int limit) {
+    if (limit < 1) {
+      throw new BadDataResponse(StringConstants.BAD_REQUEST_LIMIT);
     }
 
     try {
-      // check if email already exists
-      emailAlreadyExists = patientRepository.existsByEmail(patient.getEmail());
-
-      if (!emailAlreadyExists) {
+      return patientRepository.findByIdGreaterThanOrderByIdAsc(afterId == null ? 0L : afterId,
+          Limit.of(Math.min(limit, MAX_PAGE_SIZE)));
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
+    }
+  }
 
-        return patientRepository.save(patient);
+  /**
+   * gets one keyset page of patients ordered by id, loading only the given columns
+   *
+   * @param fields  fields to select, as parsed from the fields parameter
+   * @param afterId id of the last patient of the previous page, null or 0 for the first page
+   * @param limit   maximum number of patients to return, capped at MAX_PAGE_SIZE
+   * @return page of partially loaded patients
+   */
+  @Override
+  public List<Patient> queryPatientPageFields(Set<String> fields, Long afterId, int limit) {
+    if (limit < 1) {
+      throw new BadDataResponse(StringConstants.BAD_REQUEST_LIMIT);
+    }
 
-      }
+    try {
+      return patientRepository.findFieldsByIdGreaterThan(fields, afterId == null ? 0L : afterId,
+          Math.min(limit, MAX_PAGE_SIZE));
     } catch (Exception e) {
       throw new ServiceUnavailable(e);
     }
-
-    // if made it to this point, email is not unique
-    throw new UniqueFieldViolation(StringConstants.EMAIL_CONFLICT);
   }
 
   /**
-   * retrieves patient with matching id
+   * searches patients by indexed columns only. A search must give the last name or the state,
+   * which lead the two patient indexes, and insurance can only narrow a search by state.
    *
-   * @param patientId id of patient to retrieve
-   * @return patient on success
+   * @param lastName  optional exact last name
+   * @param state     optional two character state code
+   * @param insurance optional exact insurance provider, requires state
+   * @param limit     maximum number of patients to return, capped at MAX_PAGE_SIZE
+   * @return matching patients ordered by id
    */
   @Override
-  public Patient getPatientById(Long patientId) {
+  public List<Patient> searchPatients(String lastName, String state, String insurance,
+      int limit) {
+    Patient probe = new Patient();
+    probe.setLastName(StringUtils.hasText(lastName) ? lastName : null);
+    probe.setState(StringUtils.hasText(state) ? state : null);
+    probe.setInsurance(StringUtils.hasText(insurance) ? insurance : null);
+
+    if (probe.getLastName() == null && probe.getState() == null) {
+      throw new BadDataResponse(StringConstants.BAD_REQUEST_PATIENT_SEARCH);
+    }
+    if (limit < 1) {
+      throw new BadDataResponse(StringConstants.BAD_REQUEST_LIMIT);
+    }
 
     try {
-      Patient patient = patientRepository.findById(patientId).orElse(null);
-      if (patient != null) {
-        return patient;
-      }
+      return patientRepository.findBy(Example.of(probe, SEARCH_MATCHER),
+          query -> query.sortBy(Sort.by("id")).limit(Math.min(limit, MAX_PAGE_SIZE)).all());
     } catch (Exception e) {
       throw new ServiceUnavailable(e);
     }
-
-    throw new ResourceNotFound(StringConstants.NOT_FOUND);
   }
 
   /**
-   * updates patient in repository
+   * walks every patient in id order one keyset page at a time, so only a single page is held in
+   * memory no matter how large the table is
    *
-   * @param patientId id of patient to update
-   * @param patient   patient with updated information
-   * @return updated patient on success
+   * @param consumer receives each patient in order
    */
   @Override
-  public Patient updatePatient(Long patientId, Patient patient) {
-    Patient existingPatient;
+  public void streamPatients(Consumer<Patient> consumer) {
+    Long afterId = 0L;
+    List<Patient> page;
+
+    do {
+      page = queryPatientPage(afterId, STREAM_BATCH_SIZE);
+      for (Patient patient : page) {
+        consumer.accept(patient);
+        afterId = patient.getId();
+      }
+    } while (page.size() == STREAM_BATCH_SIZE);
+  }
 
-    boolean emailIsSame;
-    boolean newEmailIsUnique;
-    String currentEmail;
+  /**
+   * adds patient to repository
+   *
+   * @param patient patient to be added
+   * @return patient if successful
+   */
+  @Override
+  public Patient addPatient(Patient patient) {
 
-    // get the new email from the patient passed in
-    String newEmail = patient.getEmail();
+    ValidationErrors errors = patientValidator.validate(patient);
+    if (!errors.isEmpty()) {
+      throw new BadDataResponse(errors.getMessage());
+    }
 
-    // check if id in path matches id in request body
-    if (!patient.getId().equals(patientId)) {
-      throw new BadDataResponse(StringConstants.BAD_REQUEST_ID);
+    // the unique constraint on email is the guard, so the insert is the only round trip
+    try {
+      return patientRepository.saveAndFlush(patient);
+    } catch (DataIntegrityViolationException e) {
+      if (isEmailConflict(e)) {
+        throw new UniqueFieldViolation(StringConstants.EMAIL_CONFLICT);
+      }
+      throw new ServiceUnavailable(e);
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
     }
+  }
 
-    if (!validatePatient(patient)) {
-      throw new BadDataResponse(errorMessage);
+  /**
+   * adds many patients in one transaction. Rows are validated in parallel, emails are
+   * de-duplicated within the request and checked against the database with set based queries,
+   * and the accepted rows are inserted in jdbc batches. Rejected rows are reported instead of
+   * failing the whole import.
+   *
+   * @param patients patients to be added
+   * @return report of created and rejected rows
+   */
+  @Override
+  @Transactional
+  public BulkReport addPatients(List<Patient> patients) {
+    BulkReport report = new BulkReport(patients.size());
+
+    // validation is cpu bound and independent per row
+    String[] rowErrors = new String[patients.size()];
+    IntStream.range(0, patients.size()).parallel()
+        .forEach(row -> rowErrors[row] = validateRow(patients.get(row)));
+
+    // first row wins when the same email appears more than once in the request
+    Map<String, Integer> rowByEmail = new HashMap<>();
+    for (int row = 0; row < patients.size(); row++) {
+      if (rowErrors[row] != null) {
+        report.reject(row, rowErrors[row]);
+      } else if (rowByEmail.putIfAbsent(patients.get(row).getEmail(), row) != null) {
+        report.reject(row, StringConstants.EMAIL_CONFLICT);
+      }
     }
 
-    try {
+    Set<String> existingEmails = findExistingEmails(rowByEmail.keySet());
 
-      // get the existing patient from the database
-      existingPatient = patientRepository.findById(patientId).orElse(null);
+    List<Patient> batch = new ArrayList<>(bulkBatchSize);
+    for (int row = 0; row < patients.size(); row++) {
+      Patient patient = patients.get(row);
+      if (rowErrors[row] != null || rowByEmail.get(patient.getEmail()) != row) {
+        continue;
+      }
+      if (existingEmails.contains(patient.getEmail())) {
+        report.reject(row, StringConstants.EMAIL_CONFLICT);
+        continue;
+      }
 
-      if (existingPatient != null) {
+      patient.setId(null);
+      batch.add(patient);
+      report.setCreated(report.getCreated() + 1);
+      if (batch.size() == bulkBatchSize) {
+        insertBatch(batch);
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      insertBatch(batch);
+    }
 
-        // get the current email from the database
-        currentEmail = existingPatient.getEmail();
+    report.sortErrors();
+    return report;
+  }
 
-        // see if new email already exists
-        newEmailIsUnique = !patientRepository.existsByEmail(newEmail);
+  private String validateRow(Patient patient) {
+    if (patient == null) {
+      return StringConstants.BAD_REQUEST_EMPTY_ROW;
+    }
 
-        // set local for email is same
-        emailIsSame = currentEmail.equals(newEmail);
+    try {
+      ValidationErrors errors = patientValidator.validate(patient);
+      return errors.isEmpty() ? null : errors.getMessage();
+    } catch (RuntimeException e) {
+      // a missing required field
+      return StringConstants.BAD_REQUEST;
+    }
+  }
 
-        // only continue if email has not changed, or new email is unique
-        if (emailIsSame || newEmailIsUnique) {
+  private Set<String> findExistingEmails(Set<String> emails) {
+    Set<String> existing = new HashSet<>();
+    List<String> chunk = new ArrayList<>(EMAIL_LOOKUP_SIZE);
 
-          return patientRepository.save(patient);
+    try {
+      for (String email : emails) {
+        chunk.add(email);
+        if (chunk.size() == EMAIL_LOOKUP_SIZE) {
+          existing.addAll(patientRepository.findExistingEmails(chunk));
+          chunk.clear();
         }
       }
+      if (!chunk.isEmpty()) {
+        existing.addAll(patientRepository.findExistingEmails(chunk));
+      }
     } catch (Exception e) {
       throw new ServiceUnavailable(e);
     }
 
-    // if patient was not found...
-    if (existingPatient == null) {
-      throw new ResourceNotFound(StringConstants.NOT_FOUND);
-    }
-    // patient was found, so it must because of an email conflict
-    else {
-      throw new UniqueFieldViolation(StringConstants.EMAIL_CONFLICT);
-    }
+    return existing;
   }
 
-  private Boolean validatePatient(Patient patient) {
-    errorMessage = "";
-
-    if (patient.getFirstName().isEmpty()) {
-      errorMessage += ("First Name" + StringConstants.REQUIRED_FIELD);
-    } else if (!patient.getFirstName().matches("^[a-zA-Z'-]+$")) {
-      errorMessage += StringConstants.BAD_REQUEST_FIRST_NAME;
+  private void insertBatch(List<Patient> batch) {
+    try {
+      patientRepository.saveAll(batch);
+      patientRepository.flush();
+      // written rows are not needed again, keep the persistence context small
+      entityManager.clear();
+    } catch (DataIntegrityViolationException e) {
+      // another request took one of the emails after it was checked
+      if (isEmailConflict(e)) {
+        throw new UniqueFieldViolation(StringConstants.EMAIL_CONFLICT);
+      }
+      throw new ServiceUnavailable(e);
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
     }
+  }
 
-    if (patient.getLastName().isEmpty()) {
-      errorMessage += ("Last Name" + StringConstants.REQUIRED_FIELD);
-    } else if (!patient.getLastName().matches("^[a-zA-Z'-]+$")) {
-      errorMessage += StringConstants.BAD_REQUEST_LAST_NAME;
+  /**
+   * checks whether an integrity violation was raised by the unique constraint on email
+   *
+   * @param e exception translated by spring from the failed statement
+   * @return true if the email constraint was violated
+   */
+  static boolean isEmailConflict(DataIntegrityViolationException e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConstraintViolationException violation
+          && violation.getConstraintName() != null
+          && violation.getConstraintName().toLowerCase().contains(Patient.EMAIL_CONSTRAINT)) {
+        return true;
+      }
     }
+    return false;
+  }
 
-    if (patient.getSsn().isEmpty()) {
-      errorMessage += ("Social Security Number" + StringConstants.REQUIRED_FIELD);
-    } else if (!patient.getSsn().matches("^[0-9]{3}-[0-9]{2}-[0-9]{4}$")) {
-      errorMessage += StringConstants.BAD_REQUEST_SSN;
-    }
+  /**
+   * retrieves patient with matching id, served from the patients cache after the first read
+   *
+   * @param patientId id of patient to retrieve
+   * @return patient on success
+   */
+  @Override
+  @Cacheable(cacheNames = CacheConfig.PATIENTS, key = "#patientId")
+  public Patient getPatientById(Long patientId) {
 
-    if (Objects.equals(patient.getStreet(), "")) {
-      errorMessage += ("Street" + StringConstants.REQUIRED_FIELD);
+    try {
+      Patient patient = patientRepository.findById(patientId).orElse(null);
+      if (patient != null) {
+        return patient;
+      }
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
     }
 
-    if (Objects.equals(patient.getCity(), "")) {
-      errorMessage += ("City" + StringConstants.REQUIRED_FIELD);
-    }
+    throw new ResourceNotFound(StringConstants.NOT_FOUND);
+  }
 
-    if (Objects.equals(patient.getState(), "")) {
-      errorMessage += ("State" + StringConstants.REQUIRED_FIELD);
-    } else if (!patient.getState().matches("^[a-zA-Z]{2}$")) {
-      errorMessage += StringConstants.BAD_REQUEST_STATECODE;
-    }
+  /**
+   * updates patient in repository with a single update statement. With an expected version the
+   * update only applies to that version and fails with 412 otherwise. Without one the update
+   * applies to whatever version is stored, and the new version is read back afterwards.
+   *
+   * @param patientId       id of patient to update
+   * @param patient         patient with updated information
+   * @param expectedVersion version from the If-Match header, null to update the current version
+   * @return updated patient, carrying its new version, on success
+   */
+  @Override
+  @Transactional
+  @CacheEvict(cacheNames = CacheConfig.PATIENTS, key = "#patientId")
+  public Patient updatePatient(Long patientId, Patient patient, Long expectedVersion) {
+    boolean exists;
 
-    // check patient state is valid
-    else if (!ValidStates.validStatesList.contains(patient.getState())) {
-      errorMessage += StringConstants.BAD_REQUEST_STATE;
+    // check if id in path matches id in request body
+    if (!patient.getId().equals(patientId)) {
+      throw new BadDataResponse(StringConstants.BAD_REQUEST_ID);
     }
 
-    if (Objects.equals(patient.getPostal(), "")) {
-      errorMessage += ("Zip Code" + StringConstants.REQUIRED_FIELD);
-    } else if (!patient.getPostal().matches("^[0-9]{5}$") && !patient.getPostal()
-        .matches("^[0-9]{5}-[0-9]{4}$")) {
-      errorMessage += StringConstants.BAD_REQUEST_ZIPCODE;
+    ValidationErrors errors = patientValidator.validate(patient);
+    if (!errors.isEmpty()) {
+      throw new BadDataResponse(errors.getMessage());
     }
 
-    if (Objects.equals(patient.getEmail(), "")) {
-      errorMessage += ("Email" + StringConstants.REQUIRED_FIELD);
-    } else if (!patient.getEmail().matches("^[a-zA-Z0-9]+@[a-zA-Z]+\\.[a-zA-Z]+$")) {
-      errorMessage += StringConstants.BAD_REQUEST_EMAIL;
+    try {
+      if (expectedVersion == null) {
+        // the update holds the row lock, so the version read next is the one it wrote
+        if (patientRepository.updateAnyVersion(patient) == 1) {
+          patient.setVersion(patientRepository.findVersionById(patientId).orElse(null));
+          return patient;
+        }
+        exists = false;
+      } else if (patientRepository.updateIfVersion(patient, expectedVersion) == 1) {
+        patient.setVersion(expectedVersion + 1);
+        return patient;
+      } else {
+        // only a failed update pays for telling a missing patient from a stale version
+        exists = patientRepository.existsById(patientId);
+      }
+    } catch (DataIntegrityViolationException e) {
+      if (isEmailConflict(e)) {
+        throw new UniqueFieldViolation(StringConstants.EMAIL_CONFLICT);
+      }
+      throw new ServiceUnavailable(e);
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
     }
 
-    if (!(patient.getAge() > 0)) {
-      errorMessage += ("Age" + StringConstants.REQUIRED_FIELD);
+    if (exists) {
+      throw new PreconditionFailed(StringConstants.VERSION_CONFLICT);
     }
+    throw new ResourceNotFound(StringConstants.NOT_FOUND);
+  }
 
-    if (!(patient.getHeight() > 0)) {
-      errorMessage += ("Height" + StringConstants.REQUIRED_FIELD);
-    }
+  /**
+   * applies a json merge patch to a patient. Only the touched fields are validated, and since the
+   * entity uses dynamic updates the flush writes only the columns that changed, guarded by the
+   * version.
+   *
+   * @param patientId       id of patient to patch
+   * @param patch           merge patch with the fields to change
+   * @param expectedVersion version from the If-Match header, null to patch the current version
+   * @return patched patient, carrying its new version, on success
+   */
+  @Override
+  @Transactional
+  @CacheEvict(cacheNames = CacheConfig.PATIENTS, key = "#patientId")
+  public Patient patchPatient(Long patientId, JsonNode patch, Long expectedVersion) {
+    Patient patient;
 
-    if (!(patient.getWeight() > 0)) {
-      errorMessage += ("Weight" + StringConstants.REQUIRED_FIELD);
+    try {
+      patient = patientRepository.findById(patientId).orElse(null);
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
     }
 
-    if (Objects.equals(patient.getInsurance(), "")) {
-      errorMessage += ("Insurance" + StringConstants.REQUIRED_FIELD);
+    if (patient == null) {
+      throw new ResourceNotFound(StringConstants.NOT_FOUND);
+    }
+    if (expectedVersion != null && !expectedVersion.equals(patient.getVersion())) {
+      throw new PreconditionFailed(StringConstants.VERSION_CONFLICT);
     }
 
-    if (Objects.equals(patient.getGender(), "")) {
-      errorMessage += ("Gender" + StringConstants.REQUIRED_FIELD);
-    } else if (!patient.getGender().equals("Male") && !patient.getGender().equals("Female")
-        && !patient.getGender().equals("Other")) {
-      errorMessage += StringConstants.BAD_REQUEST_GENDER;
+    Set<String> touched = MergePatch.apply(objectMapper, patient, patch, PATCH_FIELDS, Set.of());
+    ValidationErrors errors = patientValidator.validate(patient, touched);
+    if (!errors.isEmpty()) {
+      throw new BadDataResponse(errors.getMessage());
     }
 
-    return errorMessage.isEmpty();
+    try {
+      patientRepository.flush();
+      return patient;
+    } catch (OptimisticLockingFailureException e) {
+      throw new PreconditionFailed(StringConstants.VERSION_CONFLICT);
+    } catch (DataIntegrityViolationException e) {
+      if (isEmailConflict(e)) {
+        throw new UniqueFieldViolation(StringConstants.EMAIL_CONFLICT);
+      }
+      throw new ServiceUnavailable(e);
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
+    }
   }
 
   /**
-   * deletes patient with matching id
+   * deletes patient with matching id if it has no encounters
    *
    * @param patientId id of patient to delete
    */
   @Override
+  @Transactional
+  @CacheEvict(cacheNames = CacheConfig.PATIENTS, key = "#patientId")
   public void deletePatient(Long patientId) {
+    boolean patientExists;
+
     try {
 
-      // if a patient exists for that id, and the patient has no encounters, delete it. else throw 409
-      if (patientRepository.existsById(patientId)) {
-        if (encounterRepository.findEncountersByPatientId(patientId).isEmpty()) {
-          patientRepository.deleteById(patientId);
-          return;
-        } else {
-          throw new UniqueFieldViolation("Unable to delete patient ");
-        }
+      // the encounter check and the delete are a single statement
+      if (patientRepository.deleteIfNoEncounters(patientId) == 1) {
+        return;
       }
-    } catch (ServiceUnavailable e) {
+
+      // nothing was deleted, only now find out why
+      patientExists = patientRepository.existsById(patientId);
+    } catch (DataIntegrityViolationException e) {
+      // an encounter added after the check, refused by the foreign key
+      throw new UniqueFieldViolation("Unable to delete patient ");
+    } catch (Exception e) {
       throw new ServiceUnavailable(e);
     }
 
-    // if we made it to this point, return a 404
+    // a patient that still exists must have encounters, so return a 409. else return a 404
+    if (patientExists) {
+      throw new UniqueFieldViolation("Unable to delete patient ");
+    }
     throw new ResourceNotFound(StringConstants.NOT_FOUND);
   }
 }
@@ -0,0 +1,135 @@
+package edu.mtc.training.domains.patients;
+
+import edu.mtc.training.constants.StringConstants;
+import edu.mtc.training.helpers.FieldFormats;
+import edu.mtc.training.helpers.ValidStates;
+import edu.mtc.training.helpers.ValidationErrors;
+import java.util.Objects;
+import java.util.Set;
+import org.springframework.stereotype.Component;
+
+/**
+ * validation rules for a patient, shared by every path that writes patients
+ */
+@Component
+public class PatientValidator {
+
+  /**
+   * checks every field of a patient
+   *
+   * @param patient patient to validate
+   * @return the errors found, empty if the patient is valid
+   */
+  public ValidationErrors validate(Patient patient) {
+    return validate(patient, null);
+  }
+
+  /**
+   * checks only the given fields of a patient, so a partial update pays for the fields it changed
+   *
+   * @param patient patient to validate
+   * @param fields  json names of the fields to check, null to check every field
+   * @return the errors found, empty if the checked fields are valid
+   */
+  public ValidationErrors validate(Patient patient, Set<String> fields) {
+    ValidationErrors errors = new ValidationErrors();
+
+    if (checks(fields, "firstName")) {
+      if (patient.getFirstName().isEmpty()) {
+        errors.addRequired("First Name");
+      } else if (!FieldFormats.isName(patient.getFirstName())) {
+        errors.add(StringConstants.BAD_REQUEST_FIRST_NAME);
+      }
+    }
+
+    if (checks(fields, "lastName")) {
+      if (patient.getLastName().isEmpty()) {
+        errors.addRequired("Last Name");
+      } else if (!FieldFormats.isName(patient.getLastName())) {
+        errors.add(StringConstants.BAD_REQUEST_LAST_NAME);
+      }
+    }
+
+    if (checks(fields, "ssn")) {
+      if (patient.getSsn().isEmpty()) {
+        errors.addRequired("Social Security Number");
+      } else if (!FieldFormats.isSsn(patient.getSsn())) {
+        errors.add(StringConstants.BAD_REQUEST_SSN);
+      }
+    }
+
+    if (checks(fields, "street") && Objects.equals(patient.getStreet(), "")) {
+      errors.addRequired("Street");
+    }
+
+    if (checks(fields, "city") && Objects.equals(patient.getCity(), "")) {
+      errors.addRequired("City");
+    }
+
+    if (checks(fields, "state")) {
+      if (Objects.equals(patient.getState(), "")) {
+        errors.addRequired("State");
+      } else if (!FieldFormats.isStateCode(patient.getState())) {
+        errors.add(StringConstants.BAD_REQUEST_STATECODE);
+      }
+
+      // check patient state is valid
+      else if (!ValidStates.isValidState(patient.getState())) {
+        errors.add(StringConstants.BAD_REQUEST_STATE);
+      }
+    }
+
+    if (checks(fields, "postal")) {
+      if (Objects.equals(patient.getPostal(), "")) {
+        errors.addRequired("Zip Code");
+      } else if (!FieldFormats.isPostal(patient.getPostal())) {
+        errors.add(StringConstants.BAD_REQUEST_ZIPCODE);
+      }
+    }
+
+    if (checks(fields, "email")) {
+      if (Objects.equals(patient.getEmail(), "")) {
+        errors.addRequired("Email");
+      } else if (!FieldFormats.isEmail(patient.getEmail())) {
+        errors.add(StringConstants.BAD_REQUEST_EMAIL);
+      }
+    }
+
+    if (checks(fields, "age") && !(patient.getAge() > 0)) {
+      errors.addRequired("Age");
+    }
+
+    if (checks(fields, "height") && !(patient.getHeight() > 0)) {
+      errors.addRequired("Height");
+    }
+
+    if (checks(fields, "weight") && !(patient.getWeight() > 0)) {
+      errors.addRequired("Weight");
+    }
+
+    if (checks(fields, "insurance") && Objects.equals(patient.getInsurance(), "")) {
+      errors.addRequired("Insurance");
+    }
+
+    if (checks(fields, "gender")) {
+      if (Objects.equals(patient.getGender(), "")) {
+        errors.addRequired("Gender");
+      } else if (!isGender(patient.getGender())) {
+        errors.add(StringConstants.BAD_REQUEST_GENDER);
+      }
+    }
+
+    return errors;
+  }
+
+  private static boolean checks(Set<String> fields, String field) {
+    return fields == null || fields.contains(field);
+  }
+
+  private static boolean isGender(String gender) {
+    return switch (gender) {
+      case "Male", "Female", "Other" -> true;
+      default -> false;
+    };
+  }
+}
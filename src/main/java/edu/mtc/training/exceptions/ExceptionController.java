@@ -1,14 +1,21 @@
 package edu.mtc.training.exceptions;
 
 import edu.mtc.training.constants.StringConstants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.hibernate.JDBCException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -24,8 +31,55 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ControllerAdvice
 public class ExceptionController {
 
+  public static final String ERRORS_METRIC = "http.server.errors";
+
   private final Logger logger = LoggerFactory.getLogger(ExceptionController.class);
 
+  private final MeterRegistry meterRegistry;
+
+  private final RepeatedErrorFilter repeatedErrors;
+
+  // registered once per exception type and status, so counting an error allocates nothing
+  private final Map<Class<?>, Map<HttpStatus, Counter>> counters = new ConcurrentHashMap<>();
+
+  public ExceptionController(MeterRegistry meterRegistry,
+      @Value("${health.errors.repeat-log-interval:10s}") Duration repeatLogInterval) {
+    this.meterRegistry = meterRegistry;
+    this.repeatedErrors = new RepeatedErrorFilter(repeatLogInterval);
+  }
+
+  /**
+   * logs an error unless the same message was logged within the repeat interval. The next one
+   * logged after the interval says how many were dropped.
+   *
+   * @param message the error message
+   */
+  private void logError(String message) {
+    long suppressed = repeatedErrors.admit(message, System.nanoTime());
+    if (suppressed == 0) {
+      logger.error(message);
+    } else if (suppressed > 0) {
+      logger.error("{} ({} identical errors suppressed)", message, suppressed);
+    }
+  }
+
+  /**
+   * counts a handled exception under http.server.errors, tagged with its type and the status sent
+   *
+   * @param exception the exception being handled
+   * @param status    the status of the response
+   */
+  private void count(Exception exception, HttpStatus status) {
+    Map<HttpStatus, Counter> byStatus = counters.computeIfAbsent(exception.getClass(),
+        type -> new ConcurrentHashMap<>());
+    Counter counter = byStatus.get(status);
+    if (counter == null) {
+      counter = byStatus.computeIfAbsent(status, s -> meterRegistry.counter(ERRORS_METRIC,
+          "exception", exception.getClass().getSimpleName(), "status", String.valueOf(s.value())));
+    }
+    counter.increment();
+  }
+
   /**
    * Catch validation errors triggered by using @Valid on parameters in controllers
    *
@@ -48,6 +102,7 @@ public class ExceptionController {
         new Date(), "One or more validation errors occurred in:" + controller + " : " + method,
         errors);
 
+    count(ex, HttpStatus.BAD_REQUEST);
     return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
   }
 
@@ -63,6 +118,7 @@ public class ExceptionController {
     ExceptionResponse response = new ExceptionResponse(StringConstants.NOT_FOUND, new Date(),
         exception.getMessage());
 
+    count(exception, HttpStatus.NOT_FOUND);
     return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
   }
 
@@ -78,6 +134,7 @@ public class ExceptionController {
     ExceptionResponse response = new ExceptionResponse(StringConstants.BAD_DATA, new Date(),
         exception.getMessage());
 
+    count(exception, HttpStatus.BAD_REQUEST);
     return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
   }
 
@@ -93,9 +150,26 @@ public class ExceptionController {
     ExceptionResponse response = new ExceptionResponse(StringConstants.BAD_DATA, new Date(),
         exception.getMessage());
 
+    count(exception, HttpStatus.CONFLICT);
     return new ResponseEntity<>(response, HttpStatus.CONFLICT);
   }
 
+  /**
+   * Triggered when the PreconditionFailed exception is thrown.
+   *
+   * @param exception - the PreconditionFailed exception containing the custom message.
+   * @return - the ResponseEntity containing the custom exception and the status code 412
+   */
+  @ExceptionHandler(PreconditionFailed.class)
+  protected ResponseEntity<ExceptionResponse> preconditionFailed(PreconditionFailed exception) {
+
+    ExceptionResponse response = new ExceptionResponse(StringConstants.PRECONDITION_FAILED,
+        new Date(), exception.getMessage());
+
+    count(exception, HttpStatus.PRECONDITION_FAILED);
+    return new ResponseEntity<>(response, HttpStatus.PRECONDITION_FAILED);
+  }
+
   /**
    * Triggered when the ServiceUnavailable exception is thrown.
    *
@@ -108,27 +182,54 @@ public class ExceptionController {
 
     String exceptionMessage = ex.getMessage();
     ExceptionResponse response;
-    // if it's a sql exception, get sql error and throw a 503
-    if (ex.getCause() instanceof JDBCException) {
-      exceptionMessage = ((JDBCException) ex.getCause()).getSQLException().getMessage();
+    // if it's a sql exception, get sql error and throw a 503. Failing to get a connection, also
+    // while the database circuit breaker is open, arrives wrapped by the transaction manager.
+    JDBCException jdbcException = jdbcCause(ex);
+    if (jdbcException != null) {
+      exceptionMessage = jdbcException.getSQLException().getMessage();
 
       response = new ExceptionResponse(StringConstants.SERVER_ERROR, new Date(), exceptionMessage);
-      logger.error(exceptionMessage);
+      logError(exceptionMessage);
+      count(ex, HttpStatus.SERVICE_UNAVAILABLE);
       return new ResponseEntity<>(response, HttpStatus.SERVICE_UNAVAILABLE);
     } else //it's an unexpected error, throw a 500
     {
-      exceptionMessage =
-          "Error: " + exceptionMessage + "   Class: " + ex.getStackTrace()[0].getClassName()
-              + "   Method: " + ex.getStackTrace()[0].getMethodName() + "   Line: "
-              + ex.getStackTrace()[0].getLineNumber();
+      // getStackTrace copies the whole trace, so it is read once. The message is part of the
+      // response body, and logging reuses it rather than building its own.
+      StackTraceElement origin = ex.getStackTrace()[0];
+      exceptionMessage = "Error: " + exceptionMessage + "   Class: " + origin.getClassName()
+          + "   Method: " + origin.getMethodName() + "   Line: " + origin.getLineNumber();
       response = new ExceptionResponse(StringConstants.UNEXPECTED_ERROR, new Date(),
           exceptionMessage);
-      logger.error(exceptionMessage);
+      logError(exceptionMessage);
+      count(ex, HttpStatus.INTERNAL_SERVER_ERROR);
       return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
   }
 
+  /**
+   * Triggered when a transaction opened around a service method cannot get a connection, before
+   * the service itself could turn the failure into a ServiceUnavailable.
+   *
+   * @param ex the exception thrown by the transaction manager
+   * @return the ResponseEntity containing the custom exception and the status code 503 or 500
+   */
+  @ExceptionHandler(CannotCreateTransactionException.class)
+  protected ResponseEntity<ExceptionResponse> transactionNotCreated(
+      CannotCreateTransactionException ex) {
+    return serverError(new ServiceUnavailable(ex));
+  }
+
+  private static JDBCException jdbcCause(Throwable ex) {
+    for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+      if (cause instanceof JDBCException jdbcException) {
+        return jdbcException;
+      }
+    }
+    return null;
+  }
+
 
 }
 
@@ -0,0 +1,11 @@
+package edu.mtc.training.exceptions;
+
+public class PreconditionFailed extends RuntimeException {
+
+  public PreconditionFailed() {
+  }
+
+  public PreconditionFailed(String message) {
+    super(message);
+  }
+}
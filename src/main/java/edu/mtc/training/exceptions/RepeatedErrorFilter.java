@@ -0,0 +1,61 @@
+package edu.mtc.training.exceptions;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lets the first of a run of identical error messages through, then at most one per interval, and
+ * counts the ones dropped in between. During an outage every request fails with the same message,
+ * so this keeps the log readable and keeps logging from competing with the recovery.
+ */
+class RepeatedErrorFilter {
+
+  // messages are bounded by the handlers, this only guards against an unexpected variety
+  private static final int MAX_MESSAGES = 1000;
+
+  private final long intervalNanos;
+  private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+
+  RepeatedErrorFilter(Duration interval) {
+    this.intervalNanos = interval.toNanos();
+  }
+
+  /**
+   * decides whether an error message should be logged now
+   *
+   * @param message   the message about to be logged
+   * @param nowNanos  the current System.nanoTime()
+   * @return -1 to drop the message, otherwise the number of identical messages dropped since it was
+   * last logged
+   */
+  long admit(String message, long nowNanos) {
+    Window window = windows.get(message);
+    if (window == null) {
+      if (windows.size() >= MAX_MESSAGES) {
+        windows.clear();
+      }
+      window = windows.computeIfAbsent(message, m -> new Window(nowNanos));
+    }
+
+    synchronized (window) {
+      if (nowNanos - window.next < 0) {
+        window.suppressed++;
+        return -1;
+      }
+      long suppressed = window.suppressed;
+      window.suppressed = 0;
+      window.next = nowNanos + intervalNanos;
+      return suppressed;
+    }
+  }
+
+  private static final class Window {
+
+    private long next;
+    private long suppressed;
+
+    private Window(long next) {
+      this.next = next;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package edu.mtc.training.helpers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The response of a bulk write. Rows are numbered from 0 in the order they were received and only
+ * rejected rows are listed, so the report stays small when most rows succeed.
+ */
+public class BulkReport {
+
+  private int received;
+  private int created;
+  private List<BulkRowError> errors = new ArrayList<>();
+
+  public BulkReport() {
+  }
+
+  public BulkReport(int received) {
+    this.received = received;
+  }
+
+  /**
+   * records a rejected row
+   *
+   * @param row          index of the row in the request
+   * @param errorMessage reason the row was rejected
+   */
+  public void reject(int row, String errorMessage) {
+    errors.add(new BulkRowError(row, errorMessage));
+  }
+
+  /**
+   * sorts the rejected rows by index, for reports filled from several passes
+   */
+  public void sortErrors() {
+    errors.sort(Comparator.comparingInt(BulkRowError::getRow));
+  }
+
+  public int getReceived() {
+    return received;
+  }
+
+  public void setReceived(int received) {
+    this.received = received;
+  }
+
+  public int getCreated() {
+    return created;
+  }
+
+  public void setCreated(int created) {
+    this.created = created;
+  }
+
+  public int getRejected() {
+    return errors.size();
+  }
+
+  public List<BulkRowError> getErrors() {
+    return errors;
+  }
+
+  public void setErrors(List<BulkRowError> errors) {
+    this.errors = errors;
+  }
+}
@@ -0,0 +1,34 @@
+package edu.mtc.training.helpers;
+
+/**
+ * A row of a bulk request that was not written, with the reason why.
+ */
+public class BulkRowError {
+
+  private int row;
+  private String errorMessage;
+
+  public BulkRowError() {
+  }
+
+  public BulkRowError(int row, String errorMessage) {
+    this.row = row;
+    this.errorMessage = errorMessage;
+  }
+
+  public int getRow() {
+    return row;
+  }
+
+  public void setRow(int row) {
+    this.row = row;
+  }
+
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  public void setErrorMessage(String errorMessage) {
+    this.errorMessage = errorMessage;
+  }
+}
@@ -0,0 +1,72 @@
+package edu.mtc.training.helpers;
+
+import edu.mtc.training.constants.StringConstants;
+import edu.mtc.training.exceptions.PreconditionFailed;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.util.DigestUtils;
+
+/**
+ * formats entity versions as strong ETags and reads them back from If-Match headers
+ */
+public class EntityTags {
+
+  private static final String ANY = "*";
+
+  private EntityTags() {
+  }
+
+  /**
+   * formats a version as a strong entity tag
+   *
+   * @param version version of the entity
+   * @return the quoted entity tag
+   */
+  public static String of(Long version) {
+    return "\"" + version + "\"";
+  }
+
+  /**
+   * formats a strong entity tag for a list from the ids and versions of its entities. Any insert,
+   * delete or versioned update of a listed entity changes the tag, and the entities never have to
+   * be serialized to compute it.
+   *
+   * @param entities entities in the order they are returned
+   * @param id       reads the id of an entity
+   * @param version  reads the version of an entity
+   * @return the quoted entity tag
+   */
+  public static <T> String of(List<T> entities, Function<T, Long> id, Function<T, Long> version) {
+    StringBuilder key = new StringBuilder(entities.size() * 8);
+    for (T entity : entities) {
+      key.append(id.apply(entity)).append(':').append(version.apply(entity)).append(',');
+    }
+    return "\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8))
+        + "\"";
+  }
+
+  /**
+   * reads the version out of an If-Match header. A weak or unknown tag can never match a version,
+   * so it fails the precondition rather than the request.
+   *
+   * @param ifMatch If-Match header, may be null
+   * @return the expected version, null if the header is absent or matches any version
+   */
+  public static Long version(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals(ANY)) {
+      return null;
+    }
+
+    String tag = ifMatch.trim();
+    if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+      throw new PreconditionFailed(StringConstants.VERSION_CONFLICT);
+    }
+
+    try {
+      return Long.valueOf(tag.substring(1, tag.length() - 1));
+    } catch (NumberFormatException e) {
+      throw new PreconditionFailed(StringConstants.VERSION_CONFLICT);
+    }
+  }
+}
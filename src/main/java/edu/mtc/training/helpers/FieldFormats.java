@@ -0,0 +1,137 @@
+package edu.mtc.training.helpers;
+
+/**
+ * Hand written scanners for the fixed field formats checked during validation. Each method accepts
+ * exactly the strings matched by the regular expression in its comment, without compiling or
+ * running a regex on the request path.
+ */
+public class FieldFormats {
+
+  private FieldFormats() {
+  }
+
+  /**
+   * ^[a-zA-Z'-]+$
+   */
+  public static boolean isName(String value) {
+    if (value.isEmpty()) {
+      return false;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (!isLetter(c) && c != '\'' && c != '-') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * ^[0-9]{3}-[0-9]{2}-[0-9]{4}$
+   */
+  public static boolean isSsn(String value) {
+    return value.length() == 11
+        && areDigits(value, 0, 3) && value.charAt(3) == '-'
+        && areDigits(value, 4, 6) && value.charAt(6) == '-'
+        && areDigits(value, 7, 11);
+  }
+
+  /**
+   * ^[a-zA-Z]{2}$
+   */
+  public static boolean isStateCode(String value) {
+    return value.length() == 2 && isLetter(value.charAt(0)) && isLetter(value.charAt(1));
+  }
+
+  /**
+   * ^[0-9]{5}$ or ^[0-9]{5}-[0-9]{4}$
+   */
+  public static boolean isPostal(String value) {
+    if (value.length() == 5) {
+      return areDigits(value, 0, 5);
+    }
+    return value.length() == 10
+        && areDigits(value, 0, 5) && value.charAt(5) == '-'
+        && areDigits(value, 6, 10);
+  }
+
+  /**
+   * ^[a-zA-Z0-9]+@[a-zA-Z]+\.[a-zA-Z]+$
+   */
+  public static boolean isEmail(String value) {
+    int at = value.indexOf('@');
+    if (at < 1) {
+      return false;
+    }
+    for (int i = 0; i < at; i++) {
+      char c = value.charAt(i);
+      if (!isLetter(c) && !isDigit(c)) {
+        return false;
+      }
+    }
+
+    // the domain is letters, exactly one dot, letters
+    int dot = -1;
+    for (int i = at + 1; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '.' && dot < 0) {
+        dot = i;
+      } else if (!isLetter(c)) {
+        return false;
+      }
+    }
+    return dot > at + 1 && dot < value.length() - 1;
+  }
+
+  /**
+   * ^[a-zA-Z][0-9][a-zA-Z] [0-9][a-zA-Z][0-9]$
+   */
+  public static boolean isVisitCode(String value) {
+    return value.length() == 7
+        && isLetter(value.charAt(0)) && isDigit(value.charAt(1)) && isLetter(value.charAt(2))
+        && value.charAt(3) == ' '
+        && isDigit(value.charAt(4)) && isLetter(value.charAt(5)) && isDigit(value.charAt(6));
+  }
+
+  /**
+   * ^[0-9]{3}.[0-9]{3}.[0-9]{3}-[0-9]{2}$
+   *
+   * <p>The original pattern used an unescaped '.', so any separator other than a line terminator
+   * is accepted between the first three groups. That behavior is kept for existing data.
+   */
+  public static boolean isBillingCode(String value) {
+    return value.length() == 14
+        && areDigits(value, 0, 3) && !isLineTerminator(value.charAt(3))
+        && areDigits(value, 4, 7) && !isLineTerminator(value.charAt(7))
+        && areDigits(value, 8, 11) && value.charAt(11) == '-'
+        && areDigits(value, 12, 14);
+  }
+
+  /**
+   * ^[a-zA-Z][0-9]{2}$
+   */
+  public static boolean isIcd10(String value) {
+    return value.length() == 3 && isLetter(value.charAt(0)) && areDigits(value, 1, 3);
+  }
+
+  private static boolean areDigits(String value, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (!isDigit(value.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isLetter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  private static boolean isLineTerminator(char c) {
+    return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+  }
+}
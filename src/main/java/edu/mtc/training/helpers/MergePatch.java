@@ -0,0 +1,63 @@
+package edu.mtc.training.helpers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import edu.mtc.training.constants.StringConstants;
+import edu.mtc.training.exceptions.BadDataResponse;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * applies json merge patches (RFC 7396) to flat entities
+ */
+public class MergePatch {
+
+  public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+  private MergePatch() {
+  }
+
+  /**
+   * copies the members of a patch onto an entity. Members left out of the patch keep their
+   * value, and null removes a value, so only optional fields may be set to null.
+   *
+   * @param mapper   mapper used to convert member values to the entity's field types
+   * @param target   entity to change in place
+   * @param patch    merge patch, must be a json object
+   * @param fields   json names of the fields a patch may change
+   * @param optional json names of the fields a patch may set to null
+   * @return json names of the fields the patch touched
+   */
+  public static Set<String> apply(ObjectMapper mapper, Object target, JsonNode patch,
+      Set<String> fields, Set<String> optional) {
+    if (!(patch instanceof ObjectNode object)) {
+      throw new BadDataResponse(StringConstants.BAD_REQUEST_PATCH);
+    }
+
+    Set<String> touched = new HashSet<>();
+    for (Iterator<Map.Entry<String, JsonNode>> it = object.fields(); it.hasNext(); ) {
+      Map.Entry<String, JsonNode> member = it.next();
+      String field = member.getKey();
+
+      if (!fields.contains(field)) {
+        throw new BadDataResponse(StringConstants.BAD_REQUEST_PATCH_FIELD + field);
+      }
+      if (member.getValue().isNull() && !optional.contains(field)) {
+        throw new BadDataResponse(field + StringConstants.REQUIRED_FIELD);
+      }
+      touched.add(field);
+    }
+
+    try {
+      mapper.readerForUpdating(target).readValue(object);
+    } catch (IOException e) {
+      throw new BadDataResponse(StringConstants.BAD_REQUEST_BODY);
+    }
+
+    return touched;
+  }
+}
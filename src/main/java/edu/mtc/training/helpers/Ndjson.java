@@ -0,0 +1,34 @@
+package edu.mtc.training.helpers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.mtc.training.constants.StringConstants;
+import edu.mtc.training.exceptions.BadDataResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * reads newline delimited json request bodies
+ */
+public class Ndjson {
+
+  private Ndjson() {
+  }
+
+  /**
+   * reads every line of the body as one value of the given type
+   *
+   * @param objectMapper mapper configured by spring
+   * @param type         type of each line
+   * @param body         request body stream
+   * @return the values in the order they were received
+   * @throws BadDataResponse if the body is not valid json
+   */
+  public static <T> List<T> readAll(ObjectMapper objectMapper, Class<T> type, InputStream body) {
+    try {
+      return objectMapper.readerFor(type).<T>readValues(body).readAll();
+    } catch (IOException e) {
+      throw new BadDataResponse(StringConstants.BAD_REQUEST_BODY);
+    }
+  }
+}
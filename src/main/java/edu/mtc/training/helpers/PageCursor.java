@@ -0,0 +1,103 @@
+package edu.mtc.training.helpers;
+
+import edu.mtc.training.constants.StringConstants;
+import edu.mtc.training.exceptions.BadDataResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Encodes and decodes the opaque "after" tokens used for keyset pagination. The token wraps the key
+ * of the last record on a page so clients never depend on the key itself. Lists ordered by id use
+ * the id alone, lists ordered by date use the date and the id that breaks ties within a day.
+ */
+public class PageCursor {
+
+  private static final String PREFIX = "id:";
+  private static final String DATE_PREFIX = "date:";
+  private static final char SEPARATOR = ':';
+
+  private PageCursor() {
+  }
+
+  /**
+   * key of the last record of a page ordered by date, then id
+   *
+   * @param date date of the last record
+   * @param id   id of the last record
+   */
+  public record DateKey(Date date, Long id) {
+
+  }
+
+  public static String encode(Long id) {
+    return toToken(PREFIX + id);
+  }
+
+  public static String encode(Date date, Long id) {
+    return toToken(DATE_PREFIX + date.getTime() + SEPARATOR + id);
+  }
+
+  /**
+   * decodes a cursor token
+   *
+   * @param token token produced by encode, may be null or blank for the first page
+   * @return id to continue after, 0 for the first page
+   */
+  public static Long decode(String token) {
+    if (token == null || token.isBlank()) {
+      return 0L;
+    }
+
+    try {
+      String decoded = fromToken(token);
+      if (decoded.startsWith(PREFIX)) {
+        long id = Long.parseLong(decoded.substring(PREFIX.length()));
+        if (id >= 0) {
+          return id;
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      // falls through to the bad request below, NumberFormatException included
+    }
+
+    throw new BadDataResponse(StringConstants.BAD_REQUEST_CURSOR);
+  }
+
+  /**
+   * decodes a cursor token produced by encode(Date, Long)
+   *
+   * @param token token produced by encode, may be null or blank for the first page
+   * @return date and id to continue after, null for the first page
+   */
+  public static DateKey decodeDateKey(String token) {
+    if (token == null || token.isBlank()) {
+      return null;
+    }
+
+    try {
+      String decoded = fromToken(token);
+      int separator = decoded.indexOf(SEPARATOR, DATE_PREFIX.length());
+      if (decoded.startsWith(DATE_PREFIX) && separator > 0) {
+        long time = Long.parseLong(decoded.substring(DATE_PREFIX.length(), separator));
+        long id = Long.parseLong(decoded.substring(separator + 1));
+        if (id >= 0) {
+          return new DateKey(new Date(time), id);
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      // falls through to the bad request below, NumberFormatException included
+    }
+
+    throw new BadDataResponse(StringConstants.BAD_REQUEST_CURSOR);
+  }
+
+  private static String toToken(String key) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(key.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private static String fromToken(String token) {
+    return new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+  }
+}
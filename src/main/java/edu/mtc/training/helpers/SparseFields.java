@@ -0,0 +1,151 @@
+package edu.mtc.training.helpers;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import edu.mtc.training.constants.StringConstants;
+import edu.mtc.training.exceptions.BadDataResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+
+/**
+ * Sparse fieldsets for list endpoints. The fields parameter is checked against a whitelist, only
+ * those columns are selected, and only those properties are serialized. The id and version are
+ * always selected so cursors and ETags keep working, but the version is never written.
+ */
+public class SparseFields {
+
+  private static final String FILTER = "sparseFields";
+  private static final String ID = "id";
+  private static final String VERSION = "version";
+
+  @JsonFilter(FILTER)
+  private interface Filtered {
+
+  }
+
+  private SparseFields() {
+  }
+
+  /**
+   * parses a comma separated fields parameter
+   *
+   * @param fields  the fields parameter
+   * @param allowed json names of the fields that may be requested
+   * @return the requested fields in order, always starting with id
+   */
+  public static Set<String> parse(String fields, Set<String> allowed) {
+    Set<String> selected = new LinkedHashSet<>();
+    selected.add(ID);
+
+    for (String field : fields.split(",")) {
+      String name = field.trim();
+      if (name.isEmpty()) {
+        continue;
+      }
+      if (!allowed.contains(name)) {
+        throw new BadDataResponse(StringConstants.BAD_REQUEST_FIELDS + name);
+      }
+      selected.add(name);
+    }
+
+    return selected;
+  }
+
+  /**
+   * selects only the given columns, ordered by id, and copies each row into a new entity instance.
+   * The instances are not managed and every other field keeps its default value.
+   *
+   * @param entityManager entity manager to run the query with
+   * @param type          entity class
+   * @param fields        fields to select, as returned by parse
+   * @param where         builds the restriction on the entity root
+   * @param limit         maximum number of rows, 0 for no limit
+   * @return partially loaded entities
+   */
+  public static <T> List<T> select(EntityManager entityManager, Class<T> type, Set<String> fields,
+      BiFunction<CriteriaBuilder, Root<T>, Predicate> where, int limit) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = builder.createTupleQuery();
+    Root<T> root = query.from(type);
+
+    List<Selection<?>> columns = new ArrayList<>(fields.size() + 1);
+    for (String field : fields) {
+      columns.add(root.get(field).alias(field));
+    }
+    columns.add(root.get(VERSION).alias(VERSION));
+    query.multiselect(columns).where(where.apply(builder, root))
+        .orderBy(builder.asc(root.get(ID)));
+
+    TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+    if (limit > 0) {
+      typedQuery.setMaxResults(limit);
+    }
+
+    List<Tuple> rows = typedQuery.getResultList();
+    List<T> entities = new ArrayList<>(rows.size());
+    for (Tuple row : rows) {
+      T entity = BeanUtils.instantiateClass(type);
+      BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(entity);
+      for (TupleElement<?> column : row.getElements()) {
+        wrapper.setPropertyValue(column.getAlias(), row.get(column));
+      }
+      entities.add(entity);
+    }
+    return entities;
+  }
+
+  /**
+   * copies a mapper so the given types can be written with a field filter. Build it once, the copy
+   * has its own serializer cache.
+   *
+   * @param mapper application mapper to copy the configuration from
+   * @param types  classes that sparse responses are made of
+   * @return mapper to pass to write
+   */
+  public static ObjectMapper mapper(ObjectMapper mapper, Class<?>... types) {
+    ObjectMapper copy = mapper.copy();
+    for (Class<?> type : types) {
+      copy.addMixIn(type, Filtered.class);
+    }
+    return copy;
+  }
+
+  /**
+   * serializes a value writing only the given properties of the filtered types
+   *
+   * @param mapper mapper built by mapper
+   * @param value  value to write
+   * @param fields properties to write
+   * @return json bytes
+   */
+  public static byte[] write(ObjectMapper mapper, Object value, Set<String> fields) {
+    FilterProvider filters = new SimpleFilterProvider()
+        .addFilter(FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(fields));
+
+    try {
+      return mapper.writer(filters).writeValueAsBytes(value);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
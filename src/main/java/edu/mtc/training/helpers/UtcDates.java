@@ -0,0 +1,49 @@
+package edu.mtc.training.helpers;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+/**
+ * Turns calendar days and months into the instants stored in date columns. Every date is kept at
+ * UTC midnight: Jackson reads yyyy-MM-dd bodies in UTC and Hibernate binds timestamps in UTC, see
+ * application.yml, so a day means the same rows whatever zone the server runs in.
+ */
+public class UtcDates {
+
+  private UtcDates() {
+  }
+
+  /**
+   * @param day calendar day
+   * @return UTC midnight at the start of the day
+   */
+  public static Date startOf(LocalDate day) {
+    return Date.from(day.atStartOfDay(ZoneOffset.UTC).toInstant());
+  }
+
+  /**
+   * @param day calendar day
+   * @return UTC midnight at the start of the following day, the exclusive end of the day
+   */
+  public static Date endOf(LocalDate day) {
+    return startOf(day.plusDays(1));
+  }
+
+  /**
+   * @param month calendar month
+   * @return UTC midnight at the start of the month
+   */
+  public static Date startOf(YearMonth month) {
+    return startOf(month.atDay(1));
+  }
+
+  /**
+   * @param month calendar month
+   * @return UTC midnight at the start of the following month, the exclusive end of the month
+   */
+  public static Date endOf(YearMonth month) {
+    return startOf(month.plusMonths(1));
+  }
+}
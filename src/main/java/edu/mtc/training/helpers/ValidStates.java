@@ -2,6 +2,7 @@ package edu.mtc.training.helpers;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Set;
 
 public class ValidStates {
 
@@ -12,4 +13,10 @@ public class ValidStates {
       "NJ", "NM", "NV", "NY", "OH", "OK", "OR", "PA", "RI", "SC", "SD", "TN", "TX", "UT", "VA",
       "VT", "WA", "WI", "WV", "WY"));
 
+  private static final Set<String> validStatesSet = Set.copyOf(validStatesList);
+
+  public static boolean isValidState(String state) {
+    return validStatesSet.contains(state);
+  }
+
 }
@@ -0,0 +1,48 @@
+package edu.mtc.training.helpers;
+
+import edu.mtc.training.constants.StringConstants;
+
+/**
+ * Collects the error messages found while validating a single entity. Every validation call gets
+ * its own instance so concurrent requests never see each other's errors. The buffer is only
+ * allocated once the first error is added, so valid input costs a single small object.
+ */
+public class ValidationErrors {
+
+  private StringBuilder messages;
+
+  /**
+   * appends a message to the collected errors
+   *
+   * @param message message to append
+   */
+  public void add(String message) {
+    if (messages == null) {
+      messages = new StringBuilder(128);
+    }
+    messages.append(message);
+  }
+
+  /**
+   * appends the required field message for a field
+   *
+   * @param field display name of the missing field
+   */
+  public void addRequired(String field) {
+    add(field);
+    messages.append(StringConstants.REQUIRED_FIELD);
+  }
+
+  public boolean isEmpty() {
+    return messages == null;
+  }
+
+  public String getMessage() {
+    return messages == null ? "" : messages.toString();
+  }
+
+  @Override
+  public String toString() {
+    return getMessage();
+  }
+}
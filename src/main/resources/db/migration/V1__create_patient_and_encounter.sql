@@ -0,0 +1,54 @@
+-- Baseline schema, matching the Patient and Encounter entities. Hibernate only validates it, see
+-- spring.jpa.hibernate.ddl-auto. Written to run on Postgres and on the H2 used by the benchmarks.
+
+-- ids are allocated 50 at a time, the default allocation size of the entities' generators
+create sequence patient_seq start with 1 increment by 50;
+create sequence encounter_seq start with 1 increment by 50;
+
+create table patient (
+  patient_id bigint not null,
+  version bigint not null,
+  first_name varchar(255),
+  last_name varchar(255),
+  ssn varchar(255),
+  email varchar(255),
+  street varchar(255),
+  city varchar(255),
+  state varchar(255),
+  postal varchar(255),
+  age integer not null,
+  height integer not null,
+  weight integer not null,
+  insurance varchar(255),
+  gender varchar(255),
+  primary key (patient_id),
+  constraint uk_patient_email unique (email)
+);
+
+create index ix_patient_last_name on patient (last_name);
+create index ix_patient_state_insurance on patient (state, insurance);
+
+create table encounter (
+  id bigint not null,
+  version bigint not null,
+  patient_id bigint,
+  notes varchar(255),
+  visit_code varchar(255),
+  provider varchar(255),
+  billing_code varchar(255),
+  icd10 varchar(255),
+  total_cost float(53),
+  copay float(53),
+  chief_complaint varchar(255),
+  pulse integer,
+  systolic integer,
+  diastolic integer,
+  date timestamp(6),
+  primary key (id)
+);
+
+-- the composite indexes also serve lookups by patient id or provider alone
+create index ix_encounter_patient_date on encounter (patient_id, date);
+create index ix_encounter_provider_date on encounter (provider, date);
+create index ix_encounter_icd10 on encounter (icd10);
+create index ix_encounter_date on encounter (date);
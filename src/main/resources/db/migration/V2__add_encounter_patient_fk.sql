@@ -0,0 +1,4 @@
+-- Every encounter belongs to an existing patient. ix_encounter_patient_date leads with patient_id,
+-- so it already serves as the index for this key and for the check on patient deletes.
+alter table encounter
+  add constraint fk_encounter_patient foreign key (patient_id) references patient (patient_id);
@@ -0,0 +1,84 @@
+package edu.mtc.training.benchmarks;
+
+import edu.mtc.training.AppRunner;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application against an in-memory H2 database for the end-to-end benchmarks.
+ */
+final class BenchmarkContext {
+
+  static final String H2_URL = "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1";
+
+  private static final String[] H2_PROPERTIES = {
+      "spring.datasource.url=" + H2_URL,
+      "spring.datasource.driverClassName=org.h2.Driver",
+      "spring.datasource.username=sa",
+      "spring.datasource.password=",
+      "spring.jpa.database=H2",
+      "spring.jpa.show-sql=false",
+      // every context starts from the seed data, even when a fork reuses the in-memory database
+      "health.db.reset-on-start=true",
+      "logging.level.root=WARN",
+      // what the benchmarks themselves report, such as PoolSizingBenchmark's acquire times
+      "logging.level.edu.mtc.training.benchmarks=INFO"
+  };
+
+  private BenchmarkContext() {
+  }
+
+  /**
+   * starts the application without a web server
+   *
+   * @param properties extra properties, overriding the H2 defaults
+   * @return the running context, close it in the benchmark's teardown
+   */
+  static ConfigurableApplicationContext start(String... properties) {
+    return start(WebApplicationType.NONE, properties);
+  }
+
+  /**
+   * starts the application with every statement and commit delayed by the given latency, as if
+   * the database were on another host
+   *
+   * @param type       web server or none
+   * @param micros     latency added to each round trip
+   * @param properties extra properties, overriding the H2 defaults
+   * @return the running context, close it in the benchmark's teardown
+   */
+  static ConfigurableApplicationContext startWithLatency(WebApplicationType type, long micros,
+      String... properties) {
+    List<String> all = new ArrayList<>(List.of(
+        "spring.datasource.url=" + LatencyInjectingDriver.url(micros, H2_URL),
+        "spring.datasource.driverClassName=" + LatencyInjectingDriver.class.getName()));
+    all.addAll(List.of(properties));
+    return start(type, all.toArray(new String[0]));
+  }
+
+  static ConfigurableApplicationContext start(WebApplicationType type, String... properties) {
+    // a repeated command line property is joined with commas, so later values replace earlier
+    Map<String, String> values = new LinkedHashMap<>();
+    for (String property : H2_PROPERTIES) {
+      values.put(property.substring(0, property.indexOf('=')), property);
+    }
+    for (String property : properties) {
+      values.put(property.substring(0, property.indexOf('=')), property);
+    }
+
+    // passed as command line arguments so they take precedence over application.yml
+    List<String> args = new ArrayList<>();
+    for (String property : values.values()) {
+      args.add("--" + property);
+    }
+
+    return new SpringApplicationBuilder(AppRunner.class)
+        .web(type)
+        .run(args.toArray(new String[0]));
+  }
+}
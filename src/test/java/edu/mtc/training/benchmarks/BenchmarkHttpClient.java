@@ -0,0 +1,40 @@
+package edu.mtc.training.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Sends the GET requests of the HTTP benchmarks to an application started by BenchmarkContext.
+ */
+final class BenchmarkHttpClient {
+
+  private final HttpClient client = HttpClient.newHttpClient();
+  private final String baseUrl;
+
+  /**
+   * @param context running context with a web server on a random port
+   */
+  BenchmarkHttpClient(ConfigurableApplicationContext context) {
+    this.baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+  }
+
+  /**
+   * sends a GET and reads the whole body, failing the benchmark on anything but a 200
+   *
+   * @param path path and query after the host
+   * @return length of the body, for the benchmark to return
+   */
+  int get(String path) throws IOException, InterruptedException {
+    HttpResponse<byte[]> response = client.send(
+        HttpRequest.newBuilder(URI.create(baseUrl + path)).build(),
+        HttpResponse.BodyHandlers.ofByteArray());
+    if (response.statusCode() != 200) {
+      throw new IllegalStateException(path + " returned " + response.statusCode());
+    }
+    return response.body().length;
+  }
+}
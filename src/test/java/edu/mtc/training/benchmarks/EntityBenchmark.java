@@ -0,0 +1,60 @@
+package edu.mtc.training.benchmarks;
+
+import edu.mtc.training.domains.patients.Patient;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures Patient.equals and Patient.hashCode, which run whenever patients sit in hash based
+ * collections or are compared by the persistence context.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityBenchmark {
+
+  private Patient patient;
+  private Patient equalPatient;
+  private Patient differentPatient;
+
+  @Setup
+  public void setUp() {
+    patient = newPatient("Salt Lake City");
+    equalPatient = newPatient("Salt Lake City");
+    differentPatient = newPatient("Provo");
+  }
+
+  @Benchmark
+  public boolean patientEquals() {
+    return patient.equals(equalPatient);
+  }
+
+  @Benchmark
+  public boolean patientNotEquals() {
+    return patient.equals(differentPatient);
+  }
+
+  @Benchmark
+  public int patientHashCode() {
+    return patient.hashCode();
+  }
+
+  private static Patient newPatient(String city) {
+    Patient newPatient = new Patient("John", "Smith", "123-45-6789", "test@email.com",
+        "123 Sesame St.", city, "UT", "84084", 43, 68, 165, "Blue Cross", "Male");
+    newPatient.setId(1L);
+    return newPatient;
+  }
+}
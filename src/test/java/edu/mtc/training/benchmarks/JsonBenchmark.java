@@ -0,0 +1,110 @@
+package edu.mtc.training.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import edu.mtc.training.domains.encounters.Encounter;
+import edu.mtc.training.domains.patients.Patient;
+import edu.mtc.training.helpers.EntityTags;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures Jackson serialization and deserialization of the two entities, the bulk of the CPU
+ * spent per request once the database has answered. The page benchmarks compare serializing a
+ * default page of patients with computing its ETag, the work left when a poll gets a 304.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private ObjectWriter patientWriter;
+  private ObjectReader patientReader;
+  private ObjectWriter encounterWriter;
+  private ObjectWriter pageWriter;
+  private ObjectReader encounterReader;
+
+  private Patient patient;
+  private Encounter encounter;
+  private byte[] patientJson;
+  private byte[] encounterJson;
+  private List<Patient> page;
+
+  @Setup
+  public void setUp() throws IOException {
+    patientWriter = mapper.writerFor(Patient.class);
+    patientReader = mapper.readerFor(Patient.class);
+    encounterWriter = mapper.writerFor(Encounter.class);
+    encounterReader = mapper.readerFor(Encounter.class);
+
+    patient = new Patient("John", "Smith", "123-45-6789", "test@email.com", "123 Sesame St.",
+        "Salt Lake City", "UT", "84084", 43, 68, 165, "Blue Cross", "Male");
+    patient.setId(1L);
+    encounter = new Encounter(1L, "These are the notes for encounter 1", "A1B 2C3", "Provider",
+        "123.456.789-10", "A12", 154.36, 50.0, "Chief complaint", 60, 120, 80, new Date());
+    encounter.setId(1L);
+
+    patientJson = patientWriter.writeValueAsBytes(patient);
+    encounterJson = encounterWriter.writeValueAsBytes(encounter);
+
+    pageWriter = mapper.writerFor(mapper.getTypeFactory()
+        .constructCollectionType(List.class, Patient.class));
+    page = new ArrayList<>();
+    for (long id = 1; id <= 100; id++) {
+      Patient row = new Patient("John", "Smith", "123-45-6789", "test" + id + "@email.com",
+          "123 Sesame St.", "Salt Lake City", "UT", "84084", 43, 68, 165, "Blue Cross", "Male");
+      row.setId(id);
+      row.setVersion(0L);
+      page.add(row);
+    }
+  }
+
+  @Benchmark
+  public byte[] serializePatient() throws IOException {
+    return patientWriter.writeValueAsBytes(patient);
+  }
+
+  @Benchmark
+  public Patient deserializePatient() throws IOException {
+    return patientReader.readValue(patientJson);
+  }
+
+  @Benchmark
+  public byte[] serializeEncounter() throws IOException {
+    return encounterWriter.writeValueAsBytes(encounter);
+  }
+
+  @Benchmark
+  public Encounter deserializeEncounter() throws IOException {
+    return encounterReader.readValue(encounterJson);
+  }
+
+  @Benchmark
+  public byte[] serializePatientPage() throws IOException {
+    return pageWriter.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public String tagPatientPage() {
+    return EntityTags.of(page, Patient::getId, Patient::getVersion);
+  }
+}
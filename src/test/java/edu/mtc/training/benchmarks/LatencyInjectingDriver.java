@@ -0,0 +1,118 @@
+package edu.mtc.training.benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * A JDBC driver that wraps another driver and sleeps before every statement execution and commit,
+ * standing in for the network round trip to a real database server. Urls have the form
+ * jdbc:latency:{micros}:{target url}.
+ */
+public final class LatencyInjectingDriver implements Driver {
+
+  static final String PREFIX = "jdbc:latency:";
+
+  static {
+    try {
+      DriverManager.registerDriver(new LatencyInjectingDriver());
+    } catch (SQLException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  /**
+   * builds the url of a connection that waits the given time per round trip
+   *
+   * @param micros    latency to add to every statement and commit
+   * @param targetUrl url of the real database
+   * @return url for this driver
+   */
+  static String url(long micros, String targetUrl) {
+    return PREFIX + micros + ":" + targetUrl;
+  }
+
+  @Override
+  public Connection connect(String url, Properties info) throws SQLException {
+    if (!acceptsURL(url)) {
+      return null;
+    }
+
+    String rest = url.substring(PREFIX.length());
+    int separator = rest.indexOf(':');
+    long micros = Long.parseLong(rest.substring(0, separator));
+    Connection target = DriverManager.getConnection(rest.substring(separator + 1), info);
+
+    return delayed(Connection.class, target, micros);
+  }
+
+  private static <T> T delayed(Class<T> type, T target, long micros) {
+    Object proxy = Proxy.newProxyInstance(LatencyInjectingDriver.class.getClassLoader(),
+        new Class<?>[]{type}, (self, method, args) -> {
+          String name = method.getName();
+          if (name.startsWith("execute") || name.equals("commit")) {
+            TimeUnit.MICROSECONDS.sleep(micros);
+          }
+
+          Object result;
+          try {
+            result = method.invoke(target, args);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+
+          // statements are wrapped too so that their executions are delayed
+          if (result instanceof CallableStatement statement) {
+            return delayed(CallableStatement.class, statement, micros);
+          } else if (result instanceof PreparedStatement statement) {
+            return delayed(PreparedStatement.class, statement, micros);
+          } else if (result instanceof Statement statement && type == Connection.class) {
+            return delayed(Statement.class, statement, micros);
+          }
+          return result;
+        });
+
+    return type.cast(proxy);
+  }
+
+  @Override
+  public boolean acceptsURL(String url) {
+    return url != null && url.startsWith(PREFIX);
+  }
+
+  @Override
+  public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+    return new DriverPropertyInfo[0];
+  }
+
+  @Override
+  public int getMajorVersion() {
+    return 1;
+  }
+
+  @Override
+  public int getMinorVersion() {
+    return 0;
+  }
+
+  @Override
+  public boolean jdbcCompliant() {
+    return false;
+  }
+
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    throw new SQLFeatureNotSupportedException();
+  }
+}
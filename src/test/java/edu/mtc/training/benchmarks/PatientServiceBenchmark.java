@@ -0,0 +1,70 @@
+package edu.mtc.training.benchmarks;
+
+import edu.mtc.training.domains.patients.Patient;
+import edu.mtc.training.domains.patients.PatientServiceImpl;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Runs PatientServiceImpl end to end, through Spring Data and Hibernate, against an in-memory H2
+ * database seeded by the DataLoader. Runs once with the caffeine caches and once without them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientServiceBenchmark {
+
+  private final AtomicLong emailSequence = new AtomicLong();
+
+  @Param({"caffeine", "none"})
+  public String cacheType;
+
+  private ConfigurableApplicationContext context;
+  private PatientServiceImpl patientService;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkContext.start("spring.cache.type=" + cacheType);
+    patientService = context.getBean(PatientServiceImpl.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Patient getPatientById() {
+    return patientService.getPatientById(1L);
+  }
+
+  @Benchmark
+  public List<Patient> queryPatientPage() {
+    return patientService.queryPatientPage(0L, 100);
+  }
+
+  @Benchmark
+  public Patient addPatient() {
+    return patientService.addPatient(new Patient("John", "Smith", "123-45-6789",
+        "bench" + emailSequence.incrementAndGet() + "@email.com", "123 Sesame St.",
+        "Salt Lake City", "UT", "84084", 43, 68, 165, "Blue Cross", "Male"));
+  }
+}
@@ -0,0 +1,82 @@
+package edu.mtc.training.benchmarks;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Drives the patient and encounter endpoints over HTTP from 32 concurrent clients while every
+ * database round trip takes 50ms, once per connection pool size. Throughput stops growing once the
+ * pool covers the concurrent requests; the Hikari acquire time logged at teardown shows how long
+ * requests queued for a connection below that point.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(32)
+@Fork(1)
+public class PoolSizingBenchmark {
+
+  private static final Logger logger = LoggerFactory.getLogger(PoolSizingBenchmark.class);
+
+  private static final long LATENCY_MICROS = 50_000;
+
+  @Param({"5", "10", "20", "40"})
+  public int poolSize;
+
+  private ConfigurableApplicationContext context;
+  private BenchmarkHttpClient client;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkContext.startWithLatency(WebApplicationType.SERVLET, LATENCY_MICROS,
+        "server.port=0",
+        "spring.cache.type=none",
+        "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+        "spring.datasource.hikari.minimum-idle=" + poolSize);
+    client = new BenchmarkHttpClient(context);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    Timer acquire = context.getBean(MeterRegistry.class).get("hikaricp.connections.acquire")
+        .timer();
+    logger.info("pool {}: connection acquire mean {}ms, max {}ms", poolSize,
+        String.format("%.2f", acquire.mean(TimeUnit.MILLISECONDS)),
+        String.format("%.2f", acquire.max(TimeUnit.MILLISECONDS)));
+    context.close();
+  }
+
+  @Benchmark
+  public int getPatientById() throws IOException, InterruptedException {
+    return client.get("/patients/" + ThreadLocalRandom.current().nextInt(1, 4));
+  }
+
+  @Benchmark
+  public int getEncountersByPatientId() throws IOException, InterruptedException {
+    // the DataLoader only gives encounters to the first two patients
+    return client.get("/patients/" + ThreadLocalRandom.current().nextInt(1, 3) + "/encounters");
+  }
+}
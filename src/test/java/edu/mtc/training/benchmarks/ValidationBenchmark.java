@@ -0,0 +1,193 @@
+package edu.mtc.training.benchmarks;
+
+import edu.mtc.training.constants.StringConstants;
+import edu.mtc.training.domains.encounters.Encounter;
+import edu.mtc.training.domains.encounters.EncounterValidator;
+import edu.mtc.training.domains.patients.Patient;
+import edu.mtc.training.domains.patients.PatientValidator;
+import edu.mtc.training.helpers.ValidStates;
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the scanner based validators with the String.matches validation they replaced. The
+ * legacy methods below are copies of the original service code and only exist as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+  private final PatientValidator patientValidator = new PatientValidator();
+  private final EncounterValidator encounterValidator = new EncounterValidator();
+
+  private final Patient validPatient = new Patient("John", "Smith", "123-45-6789",
+      "test@email.com", "123 Sesame St.", "Salt Lake City", "UT", "84084-1234", 43, 68, 165,
+      "Blue Cross", "Male");
+
+  private final Patient invalidPatient = new Patient("J0hn", "Smith!", "123456789",
+      "test@email", "123 Sesame St.", "Salt Lake City", "ZX", "8408", 0, 68, 165,
+      "Blue Cross", "Unknown");
+
+  private final Encounter validEncounter = new Encounter(1L, "notes", "A1B 2C3", "Provider",
+      "123.456.789-10", "A12", 154.36, 50.0, "Chief complaint", 60, 120, 80, new Date());
+
+  @Benchmark
+  public String validatePatient() {
+    return patientValidator.validate(validPatient).getMessage();
+  }
+
+  @Benchmark
+  public String validatePatientLegacy() {
+    return legacyValidatePatient(validPatient);
+  }
+
+  @Benchmark
+  public String validateInvalidPatient() {
+    return patientValidator.validate(invalidPatient).getMessage();
+  }
+
+  @Benchmark
+  public String validateInvalidPatientLegacy() {
+    return legacyValidatePatient(invalidPatient);
+  }
+
+  @Benchmark
+  public String validateEncounter() {
+    return encounterValidator.validate(validEncounter).getMessage();
+  }
+
+  @Benchmark
+  public String validateEncounterLegacy() {
+    return legacyValidateEncounter(validEncounter);
+  }
+
+  static String legacyValidatePatient(Patient patient) {
+    String errorMessage = "";
+
+    if (patient.getFirstName().isEmpty()) {
+      errorMessage += ("First Name" + StringConstants.REQUIRED_FIELD);
+    } else if (!patient.getFirstName().matches("^[a-zA-Z'-]+$")) {
+      errorMessage += StringConstants.BAD_REQUEST_FIRST_NAME;
+    }
+
+    if (patient.getLastName().isEmpty()) {
+      errorMessage += ("Last Name" + StringConstants.REQUIRED_FIELD);
+    } else if (!patient.getLastName().matches("^[a-zA-Z'-]+$")) {
+      errorMessage += StringConstants.BAD_REQUEST_LAST_NAME;
+    }
+
+    if (patient.getSsn().isEmpty()) {
+      errorMessage += ("Social Security Number" + StringConstants.REQUIRED_FIELD);
+    } else if (!patient.getSsn().matches("^[0-9]{3}-[0-9]{2}-[0-9]{4}$")) {
+      errorMessage += StringConstants.BAD_REQUEST_SSN;
+    }
+
+    if (Objects.equals(patient.getStreet(), "")) {
+      errorMessage += ("Street" + StringConstants.REQUIRED_FIELD);
+    }
+
+    if (Objects.equals(patient.getCity(), "")) {
+      errorMessage += ("City" + StringConstants.REQUIRED_FIELD);
+    }
+
+    if (Objects.equals(patient.getState(), "")) {
+      errorMessage += ("State" + StringConstants.REQUIRED_FIELD);
+    } else if (!patient.getState().matches("^[a-zA-Z]{2}$")) {
+      errorMessage += StringConstants.BAD_REQUEST_STATECODE;
+    } else if (!ValidStates.validStatesList.contains(patient.getState())) {
+      errorMessage += StringConstants.BAD_REQUEST_STATE;
+    }
+
+    if (Objects.equals(patient.getPostal(), "")) {
+      errorMessage += ("Zip Code" + StringConstants.REQUIRED_FIELD);
+    } else if (!patient.getPostal().matches("^[0-9]{5}$") && !patient.getPostal()
+        .matches("^[0-9]{5}-[0-9]{4}$")) {
+      errorMessage += StringConstants.BAD_REQUEST_ZIPCODE;
+    }
+
+    if (Objects.equals(patient.getEmail(), "")) {
+      errorMessage += ("Email" + StringConstants.REQUIRED_FIELD);
+    } else if (!patient.getEmail().matches("^[a-zA-Z0-9]+@[a-zA-Z]+\\.[a-zA-Z]+$")) {
+      errorMessage += StringConstants.BAD_REQUEST_EMAIL;
+    }
+
+    if (!(patient.getAge() > 0)) {
+      errorMessage += ("Age" + StringConstants.REQUIRED_FIELD);
+    }
+
+    if (!(patient.getHeight() > 0)) {
+      errorMessage += ("Height" + StringConstants.REQUIRED_FIELD);
+    }
+
+    if (!(patient.getWeight() > 0)) {
+      errorMessage += ("Weight" + StringConstants.REQUIRED_FIELD);
+    }
+
+    if (Objects.equals(patient.getInsurance(), "")) {
+      errorMessage += ("Insurance" + StringConstants.REQUIRED_FIELD);
+    }
+
+    if (Objects.equals(patient.getGender(), "")) {
+      errorMessage += ("Gender" + StringConstants.REQUIRED_FIELD);
+    } else if (!patient.getGender().equals("Male") && !patient.getGender().equals("Female")
+        && !patient.getGender().equals("Other")) {
+      errorMessage += StringConstants.BAD_REQUEST_GENDER;
+    }
+
+    return errorMessage;
+  }
+
+  static String legacyValidateEncounter(Encounter encounter) {
+    String errorMessage = "";
+
+    if (encounter.getVisitCode().isEmpty()) {
+      errorMessage += ("Visit code" + StringConstants.REQUIRED_FIELD);
+    } else if (!encounter.getVisitCode().matches("^[a-zA-Z][0-9][a-zA-Z] [0-9][a-zA-Z][0-9]$")) {
+      errorMessage += "Invalid visit code ";
+    }
+
+    if (encounter.getProvider().isEmpty()) {
+      errorMessage += ("Provider" + StringConstants.REQUIRED_FIELD);
+    }
+
+    if (encounter.getBillingCode().isEmpty()) {
+      errorMessage += ("Billing code" + StringConstants.REQUIRED_FIELD);
+    } else if (!encounter.getBillingCode().matches("^[0-9]{3}.[0-9]{3}.[0-9]{3}-[0-9]{2}$")) {
+      errorMessage += "Invalid billing code ";
+    }
+
+    if (encounter.getIcd10().isEmpty()) {
+      errorMessage += ("Icd10" + StringConstants.REQUIRED_FIELD);
+    } else if (!encounter.getIcd10().matches("^[a-zA-Z][0-9]{2}$")) {
+      errorMessage += "Invalid icd10 ";
+    }
+
+    if (!(encounter.getTotalCost() > 0.0)) {
+      errorMessage += ("Total cost" + StringConstants.REQUIRED_FIELD);
+    }
+
+    if (encounter.getChiefComplaint().isEmpty()) {
+      errorMessage += ("Chief complaint" + StringConstants.REQUIRED_FIELD);
+    }
+
+    if (encounter.getDate() == null) {
+      errorMessage += ("Date" + StringConstants.REQUIRED_FIELD);
+    }
+
+    return errorMessage;
+  }
+}
@@ -0,0 +1,74 @@
+package edu.mtc.training.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Drives the encounter and patient endpoints over HTTP from 100 concurrent clients while every
+ * database round trip takes 500ms, once with requests on Tomcat's platform thread pool capped at 20
+ * threads and once on virtual threads. The connection pool is large enough that only the request
+ * threads limit concurrency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Threads(100)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+  private static final long LATENCY_MICROS = 500_000;
+
+  @Param({"platform", "virtual"})
+  public String threads;
+
+  private ConfigurableApplicationContext context;
+  private BenchmarkHttpClient client;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkContext.startWithLatency(WebApplicationType.SERVLET, LATENCY_MICROS,
+        "server.port=0",
+        "server.tomcat.threads.max=20",
+        "spring.threads.virtual.enabled=" + threads.equals("virtual"),
+        "spring.cache.type=none",
+        "spring.datasource.hikari.maximum-pool-size=120",
+        "spring.datasource.hikari.minimum-idle=120",
+        "spring.datasource.hikari.connection-timeout=30000");
+    client = new BenchmarkHttpClient(context);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public int getPatientById() throws IOException, InterruptedException {
+    return client.get("/patients/" + ThreadLocalRandom.current().nextInt(1, 4));
+  }
+
+  @Benchmark
+  public int getEncountersByPatientId() throws IOException, InterruptedException {
+    // the DataLoader only gives encounters to the first two patients
+    return client.get("/patients/" + ThreadLocalRandom.current().nextInt(1, 3) + "/encounters");
+  }
+}
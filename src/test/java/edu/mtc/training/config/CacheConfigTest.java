@@ -0,0 +1,84 @@
+package edu.mtc.training.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import edu.mtc.training.domains.patients.Patient;
+import edu.mtc.training.domains.patients.PatientServiceImpl;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:cache;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driverClassName=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.database=H2",
+    "health.db.reset-on-start=true"})
+class CacheConfigTest {
+
+  @Autowired
+  PatientServiceImpl patientService;
+
+  @Autowired
+  CacheManager cacheManager;
+
+  @Autowired
+  TransactionTemplate transactionTemplate;
+
+  @Test
+  public void testCacheManagerIsTransactionAware() {
+    assertInstanceOf(TransactionAwareCacheManagerProxy.class, cacheManager);
+  }
+
+  @Test
+  public void testReadAfterUpdateSeesNewValue() {
+    Patient patient = copy(patientService.getPatientById(2L));
+    patient.setFirstName("Updated");
+    patientService.updatePatient(2L, patient, null);
+
+    assertEquals("Updated", patientService.getPatientById(2L).getFirstName());
+  }
+
+  @Test
+  public void testReadBeforeCommitDoesNotKeepOldValue() {
+    String before = patientService.getPatientById(1L).getFirstName();
+
+    transactionTemplate.executeWithoutResult(status -> {
+      Patient patient = copy(patientService.getPatientById(1L));
+      patient.setFirstName("Committed");
+      patientService.updatePatient(1L, patient, null);
+
+      // another request reads the row after the eviction but before the commit
+      String seen = CompletableFuture.supplyAsync(
+          () -> patientService.getPatientById(1L).getFirstName()).join();
+      assertEquals(before, seen);
+    });
+
+    assertEquals("Committed", patientService.getPatientById(1L).getFirstName());
+  }
+
+  private static Patient copy(Patient patient) {
+    Patient copy = new Patient();
+    copy.setId(patient.getId());
+    copy.setFirstName(patient.getFirstName());
+    copy.setLastName(patient.getLastName());
+    copy.setSsn(patient.getSsn());
+    copy.setEmail(patient.getEmail());
+    copy.setStreet(patient.getStreet());
+    copy.setCity(patient.getCity());
+    copy.setState(patient.getState());
+    copy.setPostal(patient.getPostal());
+    copy.setAge(patient.getAge());
+    copy.setHeight(patient.getHeight());
+    copy.setWeight(patient.getWeight());
+    copy.setInsurance(patient.getInsurance());
+    copy.setGender(patient.getGender());
+    return copy;
+  }
+}
@@ -0,0 +1,99 @@
+package edu.mtc.training.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker.State;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import java.net.ConnectException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerDataSourceTest {
+
+  DataSource target = mock(DataSource.class);
+
+  CircuitBreaker circuitBreaker = CircuitBreaker.of("test", CircuitBreakerConfig.custom()
+      .slidingWindowSize(4)
+      .minimumNumberOfCalls(2)
+      .failureRateThreshold(50)
+      .waitDurationInOpenState(Duration.ofMinutes(1))
+      .permittedNumberOfCallsInHalfOpenState(1)
+      .recordException(CircuitBreakerDataSource::isConnectionFailure)
+      .build());
+
+  CircuitBreakerDataSource dataSource = new CircuitBreakerDataSource(target, circuitBreaker);
+
+  @Test
+  public void testPassesConnectionsThrough() throws SQLException {
+    Connection connection = mock(Connection.class);
+    when(target.getConnection()).thenReturn(connection);
+
+    assertSame(connection, dataSource.getConnection());
+    assertEquals(State.CLOSED, circuitBreaker.getState());
+  }
+
+  @Test
+  public void testOpensAfterFailuresAndFailsFast() throws SQLException {
+    when(target.getConnection()).thenThrow(new SQLTransientConnectionException("timeout", null,
+        new ConnectException("Connection refused")));
+
+    assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+    assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+    assertEquals(State.OPEN, circuitBreaker.getState());
+
+    SQLException fastFail = assertThrows(SQLException.class, () -> dataSource.getConnection());
+    assertEquals(CircuitBreakerDataSource.SQL_STATE_CONNECTION_REFUSED, fastFail.getSQLState());
+    assertInstanceOf(CallNotPermittedException.class, fastFail.getCause());
+    verify(target, times(2)).getConnection();
+  }
+
+  @Test
+  public void testBusyPoolDoesNotOpenBreaker() throws SQLException {
+    // what Hikari throws when every connection is in use and none frees up in time
+    when(target.getConnection()).thenThrow(new SQLTransientConnectionException(
+        "HikariPool-1 - Connection is not available, request timed out after 30000ms."));
+
+    for (int i = 0; i < 4; i++) {
+      assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+    }
+
+    assertEquals(State.CLOSED, circuitBreaker.getState());
+    assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    verify(target, times(4)).getConnection();
+  }
+
+  @Test
+  public void testConnectionExceptionSqlStateOpensBreaker() throws SQLException {
+    when(target.getConnection()).thenThrow(
+        new SQLException("connection attempt failed", "08001"));
+
+    assertThrows(SQLException.class, () -> dataSource.getConnection());
+    assertThrows(SQLException.class, () -> dataSource.getConnection());
+
+    assertEquals(State.OPEN, circuitBreaker.getState());
+  }
+
+  @Test
+  public void testHalfOpenProbeClosesBreaker() throws SQLException {
+    circuitBreaker.transitionToOpenState();
+    circuitBreaker.transitionToHalfOpenState();
+    when(target.getConnection()).thenReturn(mock(Connection.class));
+
+    dataSource.getConnection();
+
+    assertEquals(State.CLOSED, circuitBreaker.getState());
+  }
+}
@@ -0,0 +1,63 @@
+package edu.mtc.training.domains.billing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import edu.mtc.training.domains.encounters.Encounter;
+import java.util.TimeZone;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+// the tests expect exactly the seed data, so every run starts from an empty schema
+@SpringBootTest(properties = "health.db.reset-on-start=true")
+@AutoConfigureMockMvc
+class BillingControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  ObjectMapper mapper = new ObjectMapper();
+
+  @Test
+  void encounterOnFirstDayOfMonthIsBilledInThatMonth() throws Exception {
+    // west of UTC, a date read as UTC midnight falls on the last day of the previous local month
+    TimeZone zone = TimeZone.getDefault();
+    TimeZone.setDefault(TimeZone.getTimeZone("America/Denver"));
+    try {
+      Encounter encounter = new Encounter(1L, "Notes", "A1B 2C3", "Billing Zone Provider",
+          "123.456.789-10", "A12", 100.0, 20.0, "Chief complaint", 60, 120, 80, null);
+      ObjectNode body = mapper.valueToTree(encounter);
+      body.put("date", "2025-06-01");
+
+      mockMvc.perform(post("/patients/1/encounters").contentType(MediaType.APPLICATION_JSON)
+          .content(body.toString())).andExpect(status().isCreated());
+
+      JsonNode months = summarize("/billing/months", "2025-05-01", "2025-06-30");
+      assertEquals(1, months.size());
+      assertEquals("2025-06", months.get(0).get("key").asText());
+      assertEquals(1, months.get(0).get("encounters").asLong());
+
+      JsonNode providers = summarize("/billing/providers", "2025-06-01", "2025-06-01");
+      assertEquals(1, providers.size());
+      assertEquals("Billing Zone Provider", providers.get(0).get("key").asText());
+
+      assertEquals(0, summarize("/billing/months", "2025-05-01", "2025-05-31").size());
+    } finally {
+      TimeZone.setDefault(zone);
+    }
+  }
+
+  private JsonNode summarize(String uri, String from, String to) throws Exception {
+    return mapper.readTree(mockMvc.perform(get(uri).param("from", from).param("to", to))
+        .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+  }
+}
@@ -0,0 +1,77 @@
+package edu.mtc.training.domains.billing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.mtc.training.exceptions.BadDataResponse;
+import edu.mtc.training.exceptions.ServiceUnavailable;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+class BillingServiceImplTest {
+
+  @Mock
+  BillingRepository mockBillingRepo;
+
+  @InjectMocks
+  BillingServiceImpl billingService;
+
+  BillingSummary summary = new BillingSummary(1L, 3L, 396.68, 50.0);
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  @Test
+  public void testSummarizeByPatient() {
+    when(mockBillingRepo.sumByPatient(null, null)).thenReturn(List.of(summary));
+    assertEquals(List.of(summary), billingService.summarizeByPatient(null, null));
+  }
+
+  @Test
+  public void testSummarizeByProviderIncludesLastDay() {
+    billingService.summarizeByProvider(LocalDate.of(2023, 3, 1), LocalDate.of(2023, 3, 31));
+    verify(mockBillingRepo).sumByProvider(Date.from(Instant.parse("2023-03-01T00:00:00Z")),
+        Date.from(Instant.parse("2023-04-01T00:00:00Z")));
+  }
+
+  @Test
+  public void testSummarizeByBillingCodeOpenStart() {
+    billingService.summarizeByBillingCode(null, LocalDate.of(2023, 3, 31));
+    verify(mockBillingRepo).sumByBillingCode(null,
+        Date.from(Instant.parse("2023-04-01T00:00:00Z")));
+  }
+
+  @Test
+  public void testSummarizeByMonthFromAfterTo() {
+    assertThrows(BadDataResponse.class,
+        () -> billingService.summarizeByMonth(LocalDate.of(2023, 4, 1),
+            LocalDate.of(2023, 3, 1)));
+  }
+
+  @Test
+  public void testSummarizeDBError() {
+    when(mockBillingRepo.sumByMonth(any(), any())).thenThrow(
+        CannotCreateTransactionException.class);
+    assertThrows(ServiceUnavailable.class, () -> billingService.summarizeByMonth(null, null));
+  }
+
+  @Test
+  public void testSummaryKeys() {
+    assertEquals("1", summary.getKey());
+    assertEquals("2023-04", new BillingSummary(2023, 4, 1L, null, null).getKey());
+    assertEquals(0.0, new BillingSummary("A12", 1L, null, null).getTotalCost(), 0);
+  }
+}
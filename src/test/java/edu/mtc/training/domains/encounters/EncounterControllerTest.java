@@ -7,8 +7,15 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
 import org.junit.jupiter.api.Order;
@@ -24,7 +31,8 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
-@SpringBootTest
+// the tests expect exactly the seed data, so every run starts from an empty schema
+@SpringBootTest(properties = "health.db.reset-on-start=true")
 @AutoConfigureMockMvc
 @TestMethodOrder(OrderAnnotation.class)
 class EncounterControllerTest {
@@ -122,4 +130,82 @@ class EncounterControllerTest {
 
     assertEquals("application/json", retType);
   }
+
+  @Test
+  @Order(5)
+  void addedEncounterIsFoundByItsDate() throws Exception {
+    // west of UTC, a date read as UTC midnight falls on the previous local day
+    TimeZone zone = TimeZone.getDefault();
+    TimeZone.setDefault(TimeZone.getTimeZone("America/Denver"));
+    try {
+      Encounter encounter = new Encounter(1L, "Notes", "A1B 2C3", "Zone Provider",
+          "123.456.789-10", "A12", 154.36, 50.00, "Chief complaint", 60, 180, 98, null);
+      ObjectNode body = mapper.valueToTree(encounter);
+      body.put("date", "2024-03-01");
+
+      mockMvc.perform(post(CONTEXT).contentType(MediaType.APPLICATION_JSON)
+          .content(body.toString())).andExpect(status().isCreated());
+
+      JsonNode inRange = mapper.readTree(mockMvc.perform(
+              get(CONTEXT + "/range").param("from", "2024-03-01").param("to", "2024-03-01"))
+          .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+      assertEquals(1, inRange.size());
+      assertEquals("2024-03-01", inRange.get(0).get("date").asText());
+
+      JsonNode inMonth = mapper.readTree(mockMvc.perform(get("/encounters/by-provider")
+              .param("provider", "Zone Provider").param("month", "2024-03"))
+          .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+      assertEquals(1, inMonth.size());
+
+      JsonNode monthBefore = mapper.readTree(mockMvc.perform(get("/encounters/by-provider")
+              .param("provider", "Zone Provider").param("month", "2024-02"))
+          .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+      assertEquals(0, monthBefore.size());
+
+      JsonNode onDay = mapper.readTree(mockMvc.perform(get("/encounters/search")
+              .param("provider", "Zone Provider").param("date", "2024-03-01"))
+          .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+      assertEquals(1, onDay.size());
+    } finally {
+      TimeZone.setDefault(zone);
+    }
+  }
+
+  @Test
+  @Order(6)
+  void rangePagesFollowTheCursorAcrossEncountersOnTheSameDay() throws Exception {
+    for (String date : List.of("2024-05-02", "2024-05-01", "2024-05-02", "2024-05-02")) {
+      ObjectNode body = mapper.valueToTree(new Encounter(1L, "Notes", "A1B 2C3",
+          "Keyset Provider", "123.456.789-10", "A12", 154.36, 50.00, "Chief complaint", 60, 180,
+          98, null));
+      body.put("date", date);
+      mockMvc.perform(post(CONTEXT).contentType(MediaType.APPLICATION_JSON)
+          .content(body.toString())).andExpect(status().isCreated());
+    }
+
+    List<String> dates = new ArrayList<>();
+    Set<Long> ids = new HashSet<>();
+    String after = null;
+    int pages = 0;
+    do {
+      pages++;
+      MockHttpServletResponse response = mockMvc.perform(get("/encounters/by-provider")
+              .param("provider", "Keyset Provider").param("month", "2024-05").param("limit", "2")
+              .param("after", after))
+          .andExpect(status().isOk()).andReturn().getResponse();
+      for (JsonNode encounter : mapper.readTree(response.getContentAsString())) {
+        dates.add(encounter.get("date").asText());
+        ids.add(encounter.get("id").asLong());
+      }
+      after = response.getHeader(EncounterController.NEXT_CURSOR_HEADER);
+    } while (after != null);
+
+    assertEquals(List.of("2024-05-01", "2024-05-02", "2024-05-02", "2024-05-02"), dates);
+    assertEquals(4, ids.size());
+    // two full pages, then an empty one that ends the walk
+    assertEquals(3, pages);
+
+    mockMvc.perform(get(CONTEXT + "/range").param("from", "2024-05-01")
+        .param("to", "2024-05-31").param("after", "page-2")).andExpect(status().isBadRequest());
+  }
 }
\ No newline at end of file
@@ -4,24 +4,42 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.mtc.training.constants.StringConstants;
+import edu.mtc.training.domains.patients.PatientRepository;
 import edu.mtc.training.exceptions.BadDataResponse;
+import edu.mtc.training.exceptions.PreconditionFailed;
 import edu.mtc.training.exceptions.ResourceNotFound;
 import edu.mtc.training.exceptions.ServiceUnavailable;
+import edu.mtc.training.helpers.BulkReport;
+import edu.mtc.training.helpers.BulkRowError;
+import edu.mtc.training.helpers.PageCursor;
+import jakarta.persistence.EntityManager;
 import jakarta.validation.UnexpectedTypeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Limit;
 import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -30,6 +48,18 @@ class EncounterServiceImplTest {
   @Mock
   EncounterRepository mockEncounterRepo;
 
+  @Mock
+  PatientRepository mockPatientRepo;
+
+  @Mock
+  EntityManager mockEntityManager;
+
+  @Spy
+  EncounterValidator encounterValidator = new EncounterValidator();
+
+  @Spy
+  ObjectMapper objectMapper = new ObjectMapper();
+
   @InjectMocks
   EncounterServiceImpl encounterService;
 
@@ -215,6 +245,24 @@ class EncounterServiceImplTest {
     assertThrows(BadDataResponse.class, () -> encounterService.addEncounter(encounter2));
   }
 
+  @Test
+  public void testAddEncounterBadDataMessage() {
+    BadDataResponse thrown = assertThrows(BadDataResponse.class,
+        () -> encounterService.addEncounter(encounter2));
+    Assertions.assertEquals("Invalid visit code Invalid billing code Invalid icd10 "
+        + "Total cost" + StringConstants.REQUIRED_FIELD
+        + "Date" + StringConstants.REQUIRED_FIELD, thrown.getMessage());
+  }
+
+  @Test
+  public void testAddEncounterUnknownPatient() {
+    when(mockEncounterRepo.save(any(Encounter.class))).thenThrow(
+        new DataIntegrityViolationException("fk_encounter_patient"));
+    BadDataResponse thrown = assertThrows(BadDataResponse.class,
+        () -> encounterService.addEncounter(encounter1));
+    assertEquals(StringConstants.BAD_REQUEST_PATIENT, thrown.getMessage());
+  }
+
   @Test
   public void testAddEncounterDBError() {
     when(mockEncounterRepo.save(any(Encounter.class))).thenThrow(
@@ -230,15 +278,46 @@ class EncounterServiceImplTest {
 
   @Test
   public void testUpdateEncounterByIdReturnsEncounter() throws Exception {
-    when(mockEncounterRepo.findById(any(Long.class))).thenReturn(Optional.of(encounter1));
-    Assertions.assertEquals(encounter1, encounterService.updateEncounterById(1L, encounter1));
+    when(mockEncounterRepo.updateAnyVersion(encounter1)).thenReturn(1);
+    when(mockEncounterRepo.findVersionById(1L)).thenReturn(Optional.of(1L));
+    Assertions.assertEquals(encounter1, encounterService.updateEncounterById(1L, encounter1, null));
+    Assertions.assertEquals(Long.valueOf(1L), encounter1.getVersion());
+  }
+
+  @Test
+  public void testUpdateEncounterByIdWithoutIfMatchOverwritesConcurrentUpdate() {
+    // another request moved the version from 0 to 1 before this update, which then made it 2
+    encounter1.setVersion(0L);
+    when(mockEncounterRepo.updateAnyVersion(encounter1)).thenReturn(1);
+    when(mockEncounterRepo.findVersionById(1L)).thenReturn(Optional.of(2L));
+
+    Assertions.assertEquals(encounter1, encounterService.updateEncounterById(1L, encounter1, null));
+    Assertions.assertEquals(Long.valueOf(2L), encounter1.getVersion());
+    verify(mockEncounterRepo, never()).updateIfVersion(any(Encounter.class), any(Long.class));
+  }
+
+  @Test
+  public void testUpdateEncounterByIdIfMatchIsSingleStatement() {
+    when(mockEncounterRepo.updateIfVersion(encounter1, 5L)).thenReturn(1);
+    encounterService.updateEncounterById(1L, encounter1, 5L);
+    //check the versioned update was the only statement
+    verify(mockEncounterRepo).updateIfVersion(encounter1, 5L);
+    verify(mockEncounterRepo, never()).findVersionById(any(Long.class));
+  }
+
+  @Test
+  public void testUpdateEncounterByIdStaleVersion() {
+    when(mockEncounterRepo.updateIfVersion(encounter1, 4L)).thenReturn(0);
+    when(mockEncounterRepo.existsById(1L)).thenReturn(true);
+    assertThrows(PreconditionFailed.class,
+        () -> encounterService.updateEncounterById(1L, encounter1, 4L));
   }
 
   @Test
   public void testUpdateEncounterByIdIdNotFound() {
-    when(mockEncounterRepo.findById(any(Long.class))).thenReturn(Optional.empty());
+    when(mockEncounterRepo.updateAnyVersion(encounter1)).thenReturn(0);
     assertThrows(ResourceNotFound.class,
-        () -> encounterService.updateEncounterById(1L, encounter1));
+        () -> encounterService.updateEncounterById(1L, encounter1, null));
   }
 
   @Test
@@ -263,23 +342,241 @@ class EncounterServiceImplTest {
   public void testUpdateEncounterByIdIdDoesNotMatch() {
     encounter1.setId(3L);
     assertThrows(BadDataResponse.class,
-        () -> encounterService.updateEncounterById(1L, encounter1));
+        () -> encounterService.updateEncounterById(1L, encounter1, null));
   }
 
   @Test
   public void testUpdateEncounterByIdDBError() {
-    when(mockEncounterRepo.findById(any(Long.class))).thenThrow(
+    when(mockEncounterRepo.updateAnyVersion(any(Encounter.class))).thenThrow(
         ServiceUnavailable.class);
     encounter1.setProvider("Natsu");
     assertThrows(ServiceUnavailable.class,
-        () -> encounterService.updateEncounterById(1L, encounter1));
+        () -> encounterService.updateEncounterById(1L, encounter1, null));
   }
 
   @Test
   public void testUpdateEncounterByIdServiceUnavailable() {
-    when(mockEncounterRepo.findById(any(Long.class))).thenThrow(ServiceUnavailable.class);
+    when(mockEncounterRepo.updateAnyVersion(any(Encounter.class))).thenThrow(
+        CannotCreateTransactionException.class);
     encounter1.setProvider("Natsu");
     assertThrows(ServiceUnavailable.class,
-        () -> encounterService.updateEncounterById(1L, encounter1));
+        () -> encounterService.updateEncounterById(1L, encounter1, null));
+  }
+
+  @Test
+  public void testQueryEncounterFieldsByPatientIdReturnsEncounters() {
+    Set<String> fields = Set.of("id", "date");
+    when(mockEncounterRepo.findFieldsByPatientId(fields, 1L)).thenReturn(encounterList);
+    Assertions.assertEquals(encounterList,
+        encounterService.queryEncounterFieldsByPatientId(1L, fields));
+  }
+
+  @Test
+  public void testQueryEncounterFieldsByPatientIdNotFound() {
+    when(mockEncounterRepo.findFieldsByPatientId(any(), any(Long.class))).thenReturn(List.of());
+    assertThrows(ResourceNotFound.class,
+        () -> encounterService.queryEncounterFieldsByPatientId(1L, Set.of("id")));
+  }
+
+  @Test
+  public void testPatchEncounterChangesOnlyTouchedFields() throws Exception {
+    encounter1.setVersion(0L);
+    when(mockEncounterRepo.findById(1L)).thenReturn(Optional.of(encounter1));
+    Encounter patched = encounterService.patchEncounterById(1L,
+        objectMapper.readTree("{\"provider\":\"Magnolia\",\"notes\":null}"), 0L);
+    Assertions.assertEquals("Magnolia", patched.getProvider());
+    Assertions.assertNull(patched.getNotes());
+    verify(mockEncounterRepo).flush();
+  }
+
+  @Test
+  public void testPatchEncounterInvalidTouchedField() throws Exception {
+    when(mockEncounterRepo.findById(1L)).thenReturn(Optional.of(encounter1));
+    assertThrows(BadDataResponse.class, () -> encounterService.patchEncounterById(1L,
+        objectMapper.readTree("{\"icd10\":\"bad\"}"), null));
+    assertThrows(BadDataResponse.class, () -> encounterService.patchEncounterById(1L,
+        objectMapper.readTree("{\"date\":null}"), null));
+    verify(mockEncounterRepo, never()).flush();
+  }
+
+  @Test
+  public void testPatchEncounterNotFound() throws Exception {
+    when(mockEncounterRepo.findById(1L)).thenReturn(Optional.empty());
+    assertThrows(ResourceNotFound.class, () -> encounterService.patchEncounterById(1L,
+        objectMapper.readTree("{\"provider\":\"Magnolia\"}"), null));
+  }
+
+  @Test
+  public void testPatchEncounterStaleVersion() throws Exception {
+    encounter1.setVersion(3L);
+    when(mockEncounterRepo.findById(1L)).thenReturn(Optional.of(encounter1));
+    assertThrows(PreconditionFailed.class, () -> encounterService.patchEncounterById(1L,
+        objectMapper.readTree("{\"provider\":\"Magnolia\"}"), 2L));
+  }
+
+  @Test
+  public void testStreamEncountersByPatientIdDetachesEachEncounter() {
+    when(mockEncounterRepo.streamEncountersByPatientId(1L)).thenReturn(encounterList.stream());
+    List<Encounter> streamed = new ArrayList<>();
+    encounterService.streamEncountersByPatientId(1L, streamed::add);
+    Assertions.assertEquals(encounterList, streamed);
+    verify(mockEntityManager).detach(encounter1);
+  }
+
+  @Test
+  public void testStreamEncountersByPatientIdServiceUnavailable() {
+    when(mockEncounterRepo.streamEncountersByPatientId(any(Long.class))).thenThrow(
+        CannotCreateTransactionException.class);
+    assertThrows(ServiceUnavailable.class,
+        () -> encounterService.streamEncountersByPatientId(1L, encounter -> {
+        }));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testSearchEncountersByProvider() {
+    when(mockEncounterRepo.findBy(any(Example.class), any())).thenReturn(encounterList);
+    Assertions.assertEquals(encounterList,
+        encounterService.searchEncounters(null, "Provider", null, null, 10));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testSearchEncountersByDateMatchesUtcMidnight() {
+    ArgumentCaptor<Example<Encounter>> probe = ArgumentCaptor.forClass(Example.class);
+    when(mockEncounterRepo.findBy(probe.capture(), any())).thenReturn(encounterList);
+
+    encounterService.searchEncounters(null, null, null, LocalDate.of(2023, 3, 1), 10);
+
+    assertEquals(Date.from(Instant.parse("2023-03-01T00:00:00Z")),
+        probe.getValue().getProbe().getDate());
+  }
+
+  @Test
+  public void testSearchEncountersRequiresIndexedField() {
+    assertThrows(BadDataResponse.class,
+        () -> encounterService.searchEncounters(null, "", " ", null, 10));
+  }
+
+  @Test
+  public void testSearchEncountersInvalidLimit() {
+    assertThrows(BadDataResponse.class,
+        () -> encounterService.searchEncounters(1L, null, null, null, 0));
+  }
+
+  @Test
+  public void testAddEncountersReportsRejectedRows() {
+    Encounter unknownPatient = newEncounter(99L);
+    Encounter noPatient = newEncounter(null);
+    Encounter valid = newEncounter(2L);
+    when(mockPatientRepo.findExistingIds(any())).thenReturn(Set.of(1L, 2L));
+
+    BulkReport report = encounterService.addEncounters(
+        Arrays.asList(encounter1, unknownPatient, null, noPatient, encounter3, valid));
+
+    assertEquals(6, report.getReceived());
+    assertEquals(2, report.getCreated());
+    assertEquals(List.of(1, 2, 3, 4),
+        report.getErrors().stream().map(BulkRowError::getRow).toList());
+    assertEquals(StringConstants.BAD_REQUEST_PATIENT, report.getErrors().get(0).getErrorMessage());
+    verify(mockEncounterRepo).saveAll(List.of(encounter1, valid));
+    verify(mockEntityManager).clear();
+  }
+
+  @Test
+  public void testAddEncountersDBError() {
+    when(mockPatientRepo.findExistingIds(any())).thenThrow(
+        CannotCreateTransactionException.class);
+    assertThrows(ServiceUnavailable.class,
+        () -> encounterService.addEncounters(List.of(encounter1)));
+  }
+
+  @Test
+  public void testAddEncountersForPatientUsesPathPatient() {
+    Encounter noPatient = newEncounter(null);
+    Encounter otherPatient = newEncounter(2L);
+    when(mockPatientRepo.existsById(1L)).thenReturn(true);
+
+    BulkReport report = encounterService.addEncountersForPatient(1L,
+        List.of(encounter1, noPatient, otherPatient));
+
+    assertEquals(2, report.getCreated());
+    assertEquals(Long.valueOf(1L), noPatient.getPatientId());
+    assertEquals(StringConstants.BAD_REQUEST_ID, report.getErrors().get(0).getErrorMessage());
+    verify(mockEncounterRepo).saveAll(List.of(encounter1, noPatient));
+  }
+
+  @Test
+  public void testAddEncountersForPatientNotFound() {
+    when(mockPatientRepo.existsById(any(Long.class))).thenReturn(false);
+    assertThrows(ResourceNotFound.class,
+        () -> encounterService.addEncountersForPatient(99L, List.of(encounter1)));
+  }
+
+  @Test
+  public void testQueryEncountersByDateRangeIncludesLastDay() {
+    List<Encounter> page = List.of(encounter1);
+    when(mockEncounterRepo.findByPatientIdInRange(any(), any(), any(), any(), any(), any()))
+        .thenReturn(page);
+
+    assertEquals(page, encounterService.queryEncountersByPatientIdAndDateRange(1L,
+        LocalDate.of(2023, 3, 1), LocalDate.of(2023, 3, 31), null, 5000));
+
+    // bounds are UTC midnight, the same instants Jackson parses request body dates to. The first
+    // page starts from the first day
+    Date from = Date.from(Instant.parse("2023-03-01T00:00:00Z"));
+    verify(mockEncounterRepo).findByPatientIdInRange(1L, from,
+        Date.from(Instant.parse("2023-04-01T00:00:00Z")), from, 0L,
+        Limit.of(EncounterServiceImpl.MAX_PAGE_SIZE));
+  }
+
+  @Test
+  public void testQueryEncountersByDateRangeContinuesAfterCursor() {
+    Date lastDate = Date.from(Instant.parse("2023-03-15T00:00:00Z"));
+
+    encounterService.queryEncountersByPatientIdAndDateRange(1L, LocalDate.of(2023, 3, 1),
+        LocalDate.of(2023, 3, 31), new PageCursor.DateKey(lastDate, 42L), 10);
+
+    verify(mockEncounterRepo).findByPatientIdInRange(1L,
+        Date.from(Instant.parse("2023-03-01T00:00:00Z")),
+        Date.from(Instant.parse("2023-04-01T00:00:00Z")), lastDate, 42L, Limit.of(10));
+  }
+
+  @Test
+  public void testQueryEncountersByDateRangeFromAfterTo() {
+    assertThrows(BadDataResponse.class,
+        () -> encounterService.queryEncountersByPatientIdAndDateRange(1L,
+            LocalDate.of(2023, 4, 1), LocalDate.of(2023, 3, 1), null, 10));
+  }
+
+  @Test
+  public void testQueryEncountersByDateRangeInvalidLimit() {
+    LocalDate day = LocalDate.of(2023, 3, 1);
+    assertThrows(BadDataResponse.class,
+        () -> encounterService.queryEncountersByPatientIdAndDateRange(1L, day, day, null, 0));
+  }
+
+  @Test
+  public void testQueryEncountersByProviderAndMonth() {
+    Date lastDate = Date.from(Instant.parse("2023-12-05T00:00:00Z"));
+
+    encounterService.queryEncountersByProviderAndMonth("Walter", YearMonth.of(2023, 12),
+        new PageCursor.DateKey(lastDate, 7L), 10);
+
+    verify(mockEncounterRepo).findByProviderInRange("Walter",
+        Date.from(Instant.parse("2023-12-01T00:00:00Z")),
+        Date.from(Instant.parse("2024-01-01T00:00:00Z")), lastDate, 7L, Limit.of(10));
+  }
+
+  @Test
+  public void testQueryEncountersByProviderBlank() {
+    assertThrows(BadDataResponse.class,
+        () -> encounterService.queryEncountersByProviderAndMonth(" ", YearMonth.of(2023, 1), null,
+            10));
+  }
+
+  private Encounter newEncounter(Long patientId) {
+    return new Encounter(patientId, "notes", "A1B 2C3", "provider", "123.456.789-10", "A12",
+        10.0, 0.0, "complaint", 60, 120, 80, date1);
   }
-}
\ No newline at end of file
+}
@@ -24,7 +24,8 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
-@SpringBootTest
+// the tests expect exactly the seed data, so every run starts from an empty schema
+@SpringBootTest(properties = "health.db.reset-on-start=true")
 @AutoConfigureMockMvc
 @TestMethodOrder(OrderAnnotation.class)
 class PatientControllerTest {
@@ -3,30 +3,42 @@ package edu.mtc.training.domains.patients;
 import static org.junit.Assert.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import edu.mtc.training.domains.encounters.Encounter;
-import edu.mtc.training.domains.encounters.EncounterRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.mtc.training.constants.StringConstants;
 import edu.mtc.training.exceptions.BadDataResponse;
+import edu.mtc.training.exceptions.PreconditionFailed;
 import edu.mtc.training.exceptions.ResourceNotFound;
 import edu.mtc.training.exceptions.ServiceUnavailable;
 import edu.mtc.training.exceptions.UniqueFieldViolation;
+import edu.mtc.training.helpers.BulkReport;
+import edu.mtc.training.helpers.BulkRowError;
+import jakarta.persistence.EntityManager;
 import jakarta.validation.UnexpectedTypeException;
+import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.transaction.CannotCreateTransactionException;
-import org.springframework.web.server.ResponseStatusException;
 
 class PatientServiceImplTest {
 
@@ -34,7 +46,13 @@ class PatientServiceImplTest {
   PatientRepository mockPatientRepo;
 
   @Mock
-  EncounterRepository mockEncounterRepo;
+  EntityManager mockEntityManager;
+
+  @Spy
+  PatientValidator patientValidator = new PatientValidator();
+
+  @Spy
+  ObjectMapper objectMapper = new ObjectMapper();
 
   @InjectMocks
   PatientServiceImpl patientService;
@@ -54,23 +72,6 @@ class PatientServiceImplTest {
       150,
       "Curse of Ankhseram",
       "Male");
-  List<Encounter> encounterList = new ArrayList<>();
-  List<Encounter> emptyEncounterList = new ArrayList<>();
-  Date date1 = new Date(2023, 02, 23);
-  Encounter encounter = new Encounter(
-      1L,
-      "notes",
-      "visit code",
-      "provider",
-      "billing code",
-      "icd10",
-      1.00,
-      2.00,
-      "complaint",
-      60,
-      180,
-      90,
-      date1);
 
   @BeforeEach
   @SuppressWarnings("unchecked")
@@ -79,8 +80,6 @@ class PatientServiceImplTest {
     MockitoAnnotations.openMocks(this);
     zaref.setId(1L);
     patientList.add(zaref);
-    encounter.setId(1L);
-    encounterList.add(encounter);
 
     when(mockPatientRepo.findAll()).thenReturn(patientList);
     when(mockPatientRepo.findAll(any(Example.class))).thenReturn(patientList);
@@ -88,6 +87,7 @@ class PatientServiceImplTest {
     when(mockPatientRepo.existsByEmail(any(String.class))).thenReturn(false);
     when(mockPatientRepo.existsById(any(Long.class))).thenReturn(true);
     when(mockPatientRepo.save(any(Patient.class))).thenReturn(zaref);
+    when(mockPatientRepo.saveAndFlush(any(Patient.class))).thenReturn(zaref);
   }
 
   @Test
@@ -147,57 +147,133 @@ class PatientServiceImplTest {
     Assertions.assertEquals(zaref, actualResult);
   }
 
+  @Test
+  public void testAddPatientDoesNotCheckEmailFirst() {
+    patientService.addPatient(zaref);
+    verify(mockPatientRepo, never()).existsByEmail(any(String.class));
+  }
+
   @Test
   public void testAddPatientEmailConflict() {
-    when(mockPatientRepo.existsByEmail(any(String.class))).thenReturn(true);
+    when(mockPatientRepo.saveAndFlush(any(Patient.class))).thenThrow(
+        new DataIntegrityViolationException("duplicate key",
+            new ConstraintViolationException("duplicate key", new SQLException(),
+                Patient.EMAIL_CONSTRAINT)));
     assertThrows(UniqueFieldViolation.class,
         () -> patientService.addPatient(zaref));
   }
 
+  @Test
+  public void testAddPatientOtherIntegrityViolation() {
+    when(mockPatientRepo.saveAndFlush(any(Patient.class))).thenThrow(
+        new DataIntegrityViolationException("not null",
+            new ConstraintViolationException("not null", new SQLException(), null)));
+    assertThrows(ServiceUnavailable.class,
+        () -> patientService.addPatient(zaref));
+  }
+
   @Test
   public void testAddPatientInvalidState() {
     zaref.setState("ZX");
     assertThrows(BadDataResponse.class, () -> patientService.addPatient(zaref));
   }
 
+  @Test
+  public void testAddPatientInvalidStateMessage() {
+    zaref.setState("ZX");
+    BadDataResponse thrown = assertThrows(BadDataResponse.class,
+        () -> patientService.addPatient(zaref));
+    Assertions.assertEquals(StringConstants.BAD_REQUEST_STATE, thrown.getMessage());
+  }
+
+  @Test
+  public void testAddPatientCollectsEveryError() {
+    zaref.setFirstName("");
+    zaref.setAge(0);
+    BadDataResponse thrown = assertThrows(BadDataResponse.class,
+        () -> patientService.addPatient(zaref));
+    Assertions.assertEquals("First Name" + StringConstants.REQUIRED_FIELD
+        + "Age" + StringConstants.REQUIRED_FIELD, thrown.getMessage());
+  }
+
   @Test
   public void testAddPatientDBError() {
-    when(mockPatientRepo.save(any(Patient.class))).thenThrow(
+    when(mockPatientRepo.saveAndFlush(any(Patient.class))).thenThrow(
         CannotCreateTransactionException.class);
     assertThrows(ServiceUnavailable.class, () -> patientService.addPatient(zaref));
   }
 
   @Test
   public void testAddPatientUnexpectedError() {
-    when(mockPatientRepo.save(any(Patient.class))).thenThrow(UnexpectedTypeException.class);
+    when(mockPatientRepo.saveAndFlush(any(Patient.class))).thenThrow(UnexpectedTypeException.class);
     assertThrows(ServiceUnavailable.class, () -> patientService.addPatient(zaref));
   }
 
   @Test
   public void testUpdatePatientByIdReturnsPatient() {
-    when(mockPatientRepo.findById(any(Long.class))).thenReturn(Optional.of(zaref));
-    Assertions.assertEquals("Zaref", zaref.getFirstName());
+    when(mockPatientRepo.updateAnyVersion(zaref)).thenReturn(1);
+    when(mockPatientRepo.findVersionById(1L)).thenReturn(Optional.of(4L));
+    Assertions.assertEquals(zaref, patientService.updatePatient(1L, zaref, null));
+    Assertions.assertEquals(Long.valueOf(4L), zaref.getVersion());
+  }
+
+  @Test
+  public void testUpdatePatientByIdWithoutIfMatchOverwritesConcurrentUpdate() {
+    // another request moved the version from 3 to 4 before this update, which then made it 5
+    zaref.setVersion(3L);
+    when(mockPatientRepo.updateAnyVersion(zaref)).thenReturn(1);
+    when(mockPatientRepo.findVersionById(1L)).thenReturn(Optional.of(5L));
+
+    Assertions.assertEquals(zaref, patientService.updatePatient(1L, zaref, null));
+    Assertions.assertEquals(Long.valueOf(5L), zaref.getVersion());
+    verify(mockPatientRepo, never()).updateIfVersion(any(Patient.class), any(Long.class));
+  }
+
+  @Test
+  public void testUpdatePatientByIdIfMatchIsSingleStatement() {
+    when(mockPatientRepo.updateIfVersion(zaref, 3L)).thenReturn(1);
+    patientService.updatePatient(1L, zaref, 3L);
+    //check the versioned update was the only statement
+    verify(mockPatientRepo).updateIfVersion(zaref, 3L);
+    verify(mockPatientRepo, never()).findVersionById(any(Long.class));
+    verify(mockPatientRepo, never()).existsById(any(Long.class));
+  }
+
+  @Test
+  public void testUpdatePatientByIdStaleVersion() {
+    when(mockPatientRepo.updateIfVersion(zaref, 2L)).thenReturn(0);
+    when(mockPatientRepo.existsById(1L)).thenReturn(true);
+    assertThrows(PreconditionFailed.class,
+        () -> patientService.updatePatient(1L, zaref, 2L));
+  }
+
+  @Test
+  public void testUpdatePatientByIdIfMatchNotFound() {
+    when(mockPatientRepo.updateIfVersion(zaref, 2L)).thenReturn(0);
+    when(mockPatientRepo.existsById(1L)).thenReturn(false);
+    assertThrows(ResourceNotFound.class,
+        () -> patientService.updatePatient(1L, zaref, 2L));
   }
 
   @Test
   public void testUpdatePatientByIdIdNotFound() {
-    when(mockPatientRepo.findById(any(Long.class))).thenReturn(Optional.empty());
+    when(mockPatientRepo.updateAnyVersion(zaref)).thenReturn(0);
     assertThrows(ResourceNotFound.class,
-        () -> patientService.updatePatient(1L, zaref));
+        () -> patientService.updatePatient(1L, zaref, null));
   }
 
   @Test
   public void testUpdatePatientByIdIdDoesNotMatch() {
     zaref.setId(3L);
     assertThrows(BadDataResponse.class,
-        () -> patientService.updatePatient(1L, zaref));
+        () -> patientService.updatePatient(1L, zaref, null));
   }
 
   @Test
   public void testUpdatePatientByIdInvalidState() {
     zaref.setState("ZX");
     assertThrows(BadDataResponse.class,
-        () -> patientService.updatePatient(1L, zaref));
+        () -> patientService.updatePatient(1L, zaref, null));
   }
 
   @Test
@@ -216,7 +292,7 @@ class PatientServiceImplTest {
     zaref.setInsurance("");
     zaref.setGender("");
     assertThrows(BadDataResponse.class,
-        () -> patientService.updatePatient(1L, zaref));
+        () -> patientService.updatePatient(1L, zaref, null));
   }
 
   @Test
@@ -235,7 +311,7 @@ class PatientServiceImplTest {
     zaref.setInsurance(null);
     zaref.setGender("null");
     assertThrows(BadDataResponse.class,
-        () -> patientService.updatePatient(1L, zaref));
+        () -> patientService.updatePatient(1L, zaref, null));
   }
 
   @Test
@@ -254,51 +330,151 @@ class PatientServiceImplTest {
         150,
         "Curse of Ankhseram",
         "Female");
-    when(mockPatientRepo.existsByEmail(any(String.class))).thenReturn(true);
+    when(mockPatientRepo.updateAnyVersion(any(Patient.class))).thenThrow(
+        new DataIntegrityViolationException("duplicate key",
+            new ConstraintViolationException("duplicate key", new SQLException(),
+                Patient.EMAIL_CONSTRAINT)));
     updatedPatient.setId(1L);
     updatedPatient.setFirstName("Natsu");
     //email doesn't have to exist
     updatedPatient.setEmail("salamander@fairytail.org");
     assertThrows(UniqueFieldViolation.class,
-        () -> patientService.updatePatient(1L, updatedPatient));
+        () -> patientService.updatePatient(1L, updatedPatient, null));
   }
 
   @Test
   public void testUpdatePatientByIdDBError() {
-    when(mockPatientRepo.findById(any(Long.class))).thenThrow(
+    when(mockPatientRepo.updateAnyVersion(any(Patient.class))).thenThrow(
         ServiceUnavailable.class);
     zaref.setFirstName("Natsu");
     assertThrows(ServiceUnavailable.class,
-        () -> patientService.updatePatient(1L, zaref));
+        () -> patientService.updatePatient(1L, zaref, null));
   }
 
   @Test
   public void testUpdatePatientByIdServiceUnavailable() {
-    when(mockPatientRepo.findById(any(Long.class))).thenThrow(ServiceUnavailable.class);
+    when(mockPatientRepo.updateAnyVersion(any(Patient.class))).thenThrow(
+        CannotCreateTransactionException.class);
     zaref.setFirstName("Natsu");
     assertThrows(ServiceUnavailable.class,
-        () -> patientService.updatePatient(1L, zaref));
+        () -> patientService.updatePatient(1L, zaref, null));
+  }
+
+  @Test
+  public void testQueryPatientPageFieldsCapsLimit() {
+    Set<String> fields = Set.of("id", "lastName");
+    when(mockPatientRepo.findFieldsByIdGreaterThan(fields, 0L, PatientServiceImpl.MAX_PAGE_SIZE))
+        .thenReturn(patientList);
+    Assertions.assertEquals(patientList, patientService.queryPatientPageFields(fields, null, 5000));
+  }
+
+  @Test
+  public void testQueryPatientPageFieldsBadLimit() {
+    assertThrows(BadDataResponse.class,
+        () -> patientService.queryPatientPageFields(Set.of("id"), null, 0));
+  }
+
+  @Test
+  public void testQueryPatientPageFieldsDBError() {
+    when(mockPatientRepo.findFieldsByIdGreaterThan(any(), any(), any(Integer.class))).thenThrow(
+        CannotCreateTransactionException.class);
+    assertThrows(ServiceUnavailable.class,
+        () -> patientService.queryPatientPageFields(Set.of("id"), 1L, 10));
+  }
+
+  @Test
+  public void testPatchPatientChangesOnlyTouchedFields() throws Exception {
+    zaref.setVersion(0L);
+    //untouched fields are not validated
+    zaref.setSsn("bad");
+    when(mockPatientRepo.findById(1L)).thenReturn(Optional.of(zaref));
+    Patient patched = patientService.patchPatient(1L,
+        objectMapper.readTree("{\"city\":\"Magnolia\",\"age\":30}"), 0L);
+    Assertions.assertEquals("Magnolia", patched.getCity());
+    Assertions.assertEquals(30, patched.getAge());
+    Assertions.assertEquals("Dragneel", patched.getLastName());
+    verify(mockPatientRepo).flush();
+  }
+
+  @Test
+  public void testPatchPatientInvalidTouchedField() throws Exception {
+    when(mockPatientRepo.findById(1L)).thenReturn(Optional.of(zaref));
+    assertThrows(BadDataResponse.class, () -> patientService.patchPatient(1L,
+        objectMapper.readTree("{\"state\":\"ZX\"}"), null));
+    verify(mockPatientRepo, never()).flush();
+  }
+
+  @Test
+  public void testPatchPatientRejectsNullAndUnknownFields() throws Exception {
+    when(mockPatientRepo.findById(1L)).thenReturn(Optional.of(zaref));
+    assertThrows(BadDataResponse.class, () -> patientService.patchPatient(1L,
+        objectMapper.readTree("{\"city\":null}"), null));
+    assertThrows(BadDataResponse.class, () -> patientService.patchPatient(1L,
+        objectMapper.readTree("{\"id\":2}"), null));
+    assertThrows(BadDataResponse.class, () -> patientService.patchPatient(1L,
+        objectMapper.readTree("[]"), null));
+  }
+
+  @Test
+  public void testPatchPatientNotFound() throws Exception {
+    when(mockPatientRepo.findById(1L)).thenReturn(Optional.empty());
+    assertThrows(ResourceNotFound.class, () -> patientService.patchPatient(1L,
+        objectMapper.readTree("{\"city\":\"Magnolia\"}"), null));
+  }
+
+  @Test
+  public void testPatchPatientStaleVersion() throws Exception {
+    zaref.setVersion(3L);
+    when(mockPatientRepo.findById(1L)).thenReturn(Optional.of(zaref));
+    assertThrows(PreconditionFailed.class, () -> patientService.patchPatient(1L,
+        objectMapper.readTree("{\"city\":\"Magnolia\"}"), 2L));
+  }
+
+  @Test
+  public void testPatchPatientConcurrentUpdate() throws Exception {
+    when(mockPatientRepo.findById(1L)).thenReturn(Optional.of(zaref));
+    doThrow(ObjectOptimisticLockingFailureException.class).when(mockPatientRepo).flush();
+    assertThrows(PreconditionFailed.class, () -> patientService.patchPatient(1L,
+        objectMapper.readTree("{\"city\":\"Magnolia\"}"), null));
+  }
+
+  @Test
+  public void testPatchPatientEmailConflict() throws Exception {
+    when(mockPatientRepo.findById(1L)).thenReturn(Optional.of(zaref));
+    doThrow(new DataIntegrityViolationException("duplicate key",
+        new ConstraintViolationException("duplicate key", new SQLException(),
+            Patient.EMAIL_CONSTRAINT))).when(mockPatientRepo).flush();
+    assertThrows(UniqueFieldViolation.class, () -> patientService.patchPatient(1L,
+        objectMapper.readTree("{\"email\":\"salamander@fairytail.org\"}"), null));
   }
 
   @Test
   public void testDeletePatientById204Returned() {
-    when(mockEncounterRepo.findEncountersByPatientId(2L)).thenReturn(emptyEncounterList);
+    when(mockPatientRepo.deleteIfNoEncounters(2L)).thenReturn(1);
     patientService.deletePatient(2L);
-    //check method was called
-    verify(mockPatientRepo).deleteById(any());
+    //check the guarded delete was the only statement
+    verify(mockPatientRepo).deleteIfNoEncounters(2L);
+    verify(mockPatientRepo, never()).existsById(any(Long.class));
   }
 
   @Test
   public void testDeletePatientById409Returned() {
-    when(mockEncounterRepo.findEncountersByPatientId(1L)).thenReturn(encounterList);
+    when(mockPatientRepo.deleteIfNoEncounters(1L)).thenReturn(0);
     assertThrows(UniqueFieldViolation.class,
         () -> patientService.deletePatient(1L));
   }
 
+  @Test
+  public void testDeletePatientByIdEncounterAddedConcurrently409Returned() {
+    when(mockPatientRepo.deleteIfNoEncounters(1L)).thenThrow(
+        new DataIntegrityViolationException("fk_encounter_patient"));
+    assertThrows(UniqueFieldViolation.class, () -> patientService.deletePatient(1L));
+  }
+
   @Test
   public void testDeletePatientByIdIdNotFound() {
+    when(mockPatientRepo.deleteIfNoEncounters(1L)).thenReturn(0);
     when(mockPatientRepo.existsById(any(Long.class))).thenReturn(false);
-    doThrow(ResponseStatusException.class).when(mockPatientRepo).deleteById(any(Long.class));
     assertThrows(ResourceNotFound.class, () -> patientService.deletePatient(1L));
   }
 
@@ -311,7 +487,121 @@ class PatientServiceImplTest {
 
   @Test
   public void testDeletePatientByIdServiceUnavailable() {
-    doThrow(ServiceUnavailable.class).when(mockPatientRepo).existsById(any(Long.class));
+    when(mockPatientRepo.deleteIfNoEncounters(any(Long.class))).thenThrow(
+        CannotCreateTransactionException.class);
     assertThrows(ServiceUnavailable.class, () -> patientService.deletePatient(1L));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testQueryPatientPageReturnsPatients() {
+    when(mockPatientRepo.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(10))).thenReturn(patientList);
+    Assertions.assertEquals(patientList, patientService.queryPatientPage(null, 10));
+  }
+
+  @Test
+  public void testQueryPatientPageCapsLimit() {
+    patientService.queryPatientPage(5L, 1_000_000);
+    verify(mockPatientRepo).findByIdGreaterThanOrderByIdAsc(5L,
+        Limit.of(PatientServiceImpl.MAX_PAGE_SIZE));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testSearchPatientsByLastName() {
+    when(mockPatientRepo.findBy(any(Example.class), any())).thenReturn(patientList);
+    Assertions.assertEquals(patientList, patientService.searchPatients("Dragneel", null, "", 10));
+  }
+
+  @Test
+  public void testSearchPatientsInsuranceRequiresState() {
+    assertThrows(BadDataResponse.class,
+        () -> patientService.searchPatients(null, " ", "Curse of Ankhseram", 10));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testSearchPatientsDBError() {
+    when(mockPatientRepo.findBy(any(Example.class), any())).thenThrow(
+        CannotCreateTransactionException.class);
+    assertThrows(ServiceUnavailable.class,
+        () -> patientService.searchPatients(null, "AZ", null, 10));
+  }
+
+  @Test
+  public void testQueryPatientPageInvalidLimit() {
+    assertThrows(BadDataResponse.class, () -> patientService.queryPatientPage(0L, 0));
+  }
+
+  @Test
+  public void testQueryPatientPageDBError() {
+    when(mockPatientRepo.findByIdGreaterThanOrderByIdAsc(any(Long.class), any(Limit.class)))
+        .thenThrow(CannotCreateTransactionException.class);
+    assertThrows(ServiceUnavailable.class, () -> patientService.queryPatientPage(0L, 10));
+  }
+
+  @Test
+  public void testStreamPatientsReadsEveryPage() {
+    List<Patient> fullPage = new ArrayList<>();
+    for (long id = 1; id <= PatientServiceImpl.STREAM_BATCH_SIZE; id++) {
+      Patient patient = new Patient();
+      patient.setId(id);
+      fullPage.add(patient);
+    }
+    Patient last = new Patient();
+    last.setId(PatientServiceImpl.STREAM_BATCH_SIZE + 1L);
+
+    when(mockPatientRepo.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+        .thenReturn(fullPage);
+    when(mockPatientRepo.findByIdGreaterThanOrderByIdAsc(
+        eq((long) PatientServiceImpl.STREAM_BATCH_SIZE), any(Limit.class)))
+        .thenReturn(List.of(last));
+
+    List<Patient> streamed = new ArrayList<>();
+    patientService.streamPatients(streamed::add);
+
+    assertEquals(PatientServiceImpl.STREAM_BATCH_SIZE + 1, streamed.size());
+    assertEquals(last, streamed.get(streamed.size() - 1));
+  }
+
+  @Test
+  public void testAddPatientsReportsRejectedRows() {
+    Patient duplicate = newPatient("spriggan@alvarez.gov");
+    Patient taken = newPatient("taken@alvarez.gov");
+    Patient invalid = newPatient("not an email");
+    Patient valid = newPatient("valid@alvarez.gov");
+    when(mockPatientRepo.findExistingEmails(any())).thenReturn(Set.of("taken@alvarez.gov"));
+
+    BulkReport report = patientService.addPatients(
+        Arrays.asList(zaref, duplicate, null, taken, invalid, valid));
+
+    assertEquals(6, report.getReceived());
+    assertEquals(2, report.getCreated());
+    assertEquals(List.of(1, 2, 3, 4),
+        report.getErrors().stream().map(BulkRowError::getRow).toList());
+    verify(mockPatientRepo).saveAll(List.of(zaref, valid));
+    verify(mockEntityManager).clear();
+  }
+
+  @Test
+  public void testAddPatientsEmailTakenConcurrently() {
+    when(mockPatientRepo.findExistingEmails(any())).thenReturn(Set.of());
+    doThrow(new DataIntegrityViolationException("duplicate key",
+        new ConstraintViolationException("duplicate key", new SQLException(),
+            Patient.EMAIL_CONSTRAINT))).when(mockPatientRepo).flush();
+    assertThrows(UniqueFieldViolation.class,
+        () -> patientService.addPatients(List.of(zaref)));
+  }
+
+  @Test
+  public void testAddPatientsDBError() {
+    when(mockPatientRepo.findExistingEmails(any())).thenThrow(
+        CannotCreateTransactionException.class);
+    assertThrows(ServiceUnavailable.class,
+        () -> patientService.addPatients(List.of(zaref)));
+  }
+
+  private Patient newPatient(String email) {
+    return new Patient("Zaref", "Dragneel", "111-11-1111", email, "1 Royal Way", "Alvarez", "AZ",
+        "12345", 425, 68, 150, "Curse of Ankhseram", "Male");
+  }
+}
@@ -0,0 +1,57 @@
+package edu.mtc.training.exceptions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.SQLException;
+import java.time.Duration;
+import org.hibernate.JDBCException;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+class ExceptionControllerTest {
+
+  SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  ExceptionController controller = new ExceptionController(registry, Duration.ofSeconds(10));
+
+  private double errors(String exception, String status) {
+    return registry.get(ExceptionController.ERRORS_METRIC)
+        .tag("exception", exception).tag("status", status).counter().count();
+  }
+
+  @Test
+  public void testCountsByExceptionAndStatus() {
+    controller.resourceNotFound(new ResourceNotFound("missing"));
+    controller.resourceNotFound(new ResourceNotFound("missing"));
+    controller.badDataResponse(new BadDataResponse("bad"));
+    controller.uniqueFieldViolation(new UniqueFieldViolation("taken"));
+    controller.preconditionFailed(new PreconditionFailed("stale"));
+
+    assertEquals(2, errors("ResourceNotFound", "404"));
+    assertEquals(1, errors("BadDataResponse", "400"));
+    assertEquals(1, errors("UniqueFieldViolation", "409"));
+    assertEquals(1, errors("PreconditionFailed", "412"));
+  }
+
+  @Test
+  public void testCountsDatabaseFailuresAs503() {
+    JDBCException down = new JDBCException("down", new SQLException("connection refused"));
+
+    assertEquals(503, controller.serverError(
+        new ServiceUnavailable(new RuntimeException(down))).getStatusCode().value());
+    assertEquals(503, controller.transactionNotCreated(
+        new CannotCreateTransactionException("no connection", down)).getStatusCode().value());
+
+    assertEquals(2, errors("ServiceUnavailable", "503"));
+  }
+
+  @Test
+  public void testCountsUnexpectedFailuresAs500() {
+    assertEquals(500, controller.serverError(new ServiceUnavailable("boom")).getStatusCode()
+        .value());
+
+    assertEquals(1, errors("ServiceUnavailable", "500"));
+    assertEquals(1, registry.get(ExceptionController.ERRORS_METRIC).counters().size());
+  }
+}
@@ -0,0 +1,43 @@
+package edu.mtc.training.exceptions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class RepeatedErrorFilterTest {
+
+  private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+  RepeatedErrorFilter filter = new RepeatedErrorFilter(Duration.ofSeconds(10));
+
+  @Test
+  public void testFirstMessageIsLogged() {
+    assertEquals(0, filter.admit("down", 0));
+  }
+
+  @Test
+  public void testRepeatsAreDroppedUntilTheIntervalPasses() {
+    filter.admit("down", 0);
+
+    assertEquals(-1, filter.admit("down", SECOND));
+    assertEquals(-1, filter.admit("down", 9 * SECOND));
+    assertEquals(2, filter.admit("down", 10 * SECOND));
+    assertEquals(-1, filter.admit("down", 11 * SECOND));
+  }
+
+  @Test
+  public void testDifferentMessagesAreIndependent() {
+    filter.admit("down", 0);
+
+    assertEquals(0, filter.admit("timeout", SECOND));
+    assertEquals(-1, filter.admit("down", SECOND));
+  }
+
+  @Test
+  public void testNegativeNanoTime() {
+    assertEquals(0, filter.admit("down", -20 * SECOND));
+    assertEquals(-1, filter.admit("down", -15 * SECOND));
+    assertEquals(1, filter.admit("down", -5 * SECOND));
+  }
+}
@@ -0,0 +1,46 @@
+package edu.mtc.training.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.mtc.training.exceptions.PreconditionFailed;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class EntityTagsTest {
+
+  @Test
+  void versionReadsBackFormattedTag() {
+    assertEquals(Long.valueOf(7L), EntityTags.version(EntityTags.of(7L)));
+  }
+
+  @Test
+  void listTagChangesWithMembershipAndVersions() {
+    Function<long[], Long> id = row -> row[0];
+    Function<long[], Long> version = row -> row[1];
+    String tag = EntityTags.of(List.of(new long[]{1, 0}, new long[]{2, 0}), id, version);
+
+    assertEquals(tag, EntityTags.of(List.of(new long[]{1, 0}, new long[]{2, 0}), id, version));
+    assertNotEquals(tag, EntityTags.of(List.of(new long[]{1, 0}, new long[]{2, 1}), id, version));
+    assertNotEquals(tag, EntityTags.of(List.of(new long[]{1, 0}), id, version));
+    assertNotEquals(tag, EntityTags.of(List.of(new long[]{1, 0}, new long[]{3, 0}), id, version));
+  }
+
+  @Test
+  void versionIsNullWithoutPrecondition() {
+    assertNull(EntityTags.version(null));
+    assertNull(EntityTags.version(" "));
+    assertNull(EntityTags.version("*"));
+  }
+
+  @Test
+  void versionFailsPreconditionForTagsThatCannotMatch() {
+    assertThrows(PreconditionFailed.class, () -> EntityTags.version("W/\"7\""));
+    assertThrows(PreconditionFailed.class, () -> EntityTags.version("7"));
+    assertThrows(PreconditionFailed.class, () -> EntityTags.version("\"abc\""));
+    assertThrows(PreconditionFailed.class, () -> EntityTags.version("\""));
+  }
+}
@@ -0,0 +1,68 @@
+package edu.mtc.training.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+
+class FieldFormatsTest {
+
+  // inputs around the edges of every format, checked against the regexes the scanners replace
+  List<String> samples = List.of(
+      "", " ", "a", "Zaref", "O'Malley", "Jean-Luc", "Zaref1", "Zar ef", "émile",
+      "123-45-6789", "123-45-678", "123-45-67890", "123 45 6789", "12a-45-6789", "123-45-6789\n",
+      "UT", "ut", "U", "UTA", "U1",
+      "84084", "8408", "840844", "84084-1234", "84084-123", "84084 1234", "8408a",
+      "test@email.com", "test2@email.com", "t@e.c", "@email.com", "test@.com", "test@email.",
+      "test@email.co.uk", "te.st@email.com", "test@em4il.com", "test@email..com", "test@@email.com",
+      "A1B 2C3", "a1b 2c3", "A1B2C3", "A1B  2C3", "11B 2C3", "A1B 2C3 ",
+      "123.456.789-10", "123x456y789-10", "123.456.789.10", "123\n456.789-10", "123.456.789-1",
+      "A12", "a12", "AZ45", "A1", "112", "A12 ");
+
+  @Test
+  void isNameMatchesRegex() {
+    assertMatches("^[a-zA-Z'-]+$", FieldFormats::isName);
+  }
+
+  @Test
+  void isSsnMatchesRegex() {
+    assertMatches("^[0-9]{3}-[0-9]{2}-[0-9]{4}$", FieldFormats::isSsn);
+  }
+
+  @Test
+  void isStateCodeMatchesRegex() {
+    assertMatches("^[a-zA-Z]{2}$", FieldFormats::isStateCode);
+  }
+
+  @Test
+  void isPostalMatchesRegex() {
+    assertMatches("^[0-9]{5}(-[0-9]{4})?$", FieldFormats::isPostal);
+  }
+
+  @Test
+  void isEmailMatchesRegex() {
+    assertMatches("^[a-zA-Z0-9]+@[a-zA-Z]+\\.[a-zA-Z]+$", FieldFormats::isEmail);
+  }
+
+  @Test
+  void isVisitCodeMatchesRegex() {
+    assertMatches("^[a-zA-Z][0-9][a-zA-Z] [0-9][a-zA-Z][0-9]$", FieldFormats::isVisitCode);
+  }
+
+  @Test
+  void isBillingCodeMatchesRegex() {
+    assertMatches("^[0-9]{3}.[0-9]{3}.[0-9]{3}-[0-9]{2}$", FieldFormats::isBillingCode);
+  }
+
+  @Test
+  void isIcd10MatchesRegex() {
+    assertMatches("^[a-zA-Z][0-9]{2}$", FieldFormats::isIcd10);
+  }
+
+  private void assertMatches(String regex, Predicate<String> scanner) {
+    for (String sample : samples) {
+      assertEquals(sample.matches(regex), scanner.test(sample), "input: " + sample);
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package edu.mtc.training.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.mtc.training.exceptions.BadDataResponse;
+import java.time.Instant;
+import java.util.Date;
+import org.junit.jupiter.api.Test;
+
+class PageCursorTest {
+
+  @Test
+  void idCursorRoundTrips() {
+    assertEquals(Long.valueOf(42L), PageCursor.decode(PageCursor.encode(42L)));
+    assertEquals(Long.valueOf(0L), PageCursor.decode(null));
+  }
+
+  @Test
+  void dateKeyCursorRoundTrips() {
+    Date date = Date.from(Instant.parse("2024-03-01T00:00:00Z"));
+
+    assertEquals(new PageCursor.DateKey(date, 42L),
+        PageCursor.decodeDateKey(PageCursor.encode(date, 42L)));
+    assertNull(PageCursor.decodeDateKey(" "));
+  }
+
+  @Test
+  void cursorOfTheOtherKindIsRejected() {
+    Date date = Date.from(Instant.parse("2024-03-01T00:00:00Z"));
+
+    assertThrows(BadDataResponse.class, () -> PageCursor.decode(PageCursor.encode(date, 42L)));
+    assertThrows(BadDataResponse.class, () -> PageCursor.decodeDateKey(PageCursor.encode(42L)));
+    assertThrows(BadDataResponse.class, () -> PageCursor.decodeDateKey("not a cursor"));
+  }
+}
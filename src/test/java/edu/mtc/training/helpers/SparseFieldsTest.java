@@ -0,0 +1,46 @@
+package edu.mtc.training.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.mtc.training.domains.encounters.Encounter;
+import edu.mtc.training.exceptions.BadDataResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class SparseFieldsTest {
+
+  Set<String> allowed = Set.of("id", "provider", "date");
+
+  @Test
+  void parseAlwaysStartsWithId() {
+    assertEquals(List.of("id", "provider", "date"),
+        List.copyOf(SparseFields.parse(" provider,,date,id ", allowed)));
+  }
+
+  @Test
+  void parseRejectsFieldsOutsideWhitelist() {
+    assertThrows(BadDataResponse.class, () -> SparseFields.parse("provider,version", allowed));
+    assertThrows(BadDataResponse.class, () -> SparseFields.parse("patient.ssn", allowed));
+  }
+
+  @Test
+  void writeKeepsOnlyRequestedFieldsAndTheirFormat() {
+    Encounter encounter = new Encounter();
+    encounter.setId(4L);
+    encounter.setProvider("Provider");
+    encounter.setNotes("not requested");
+    encounter.setDate(new GregorianCalendar(2023, 2, 23).getTime());
+    encounter.setVersion(2L);
+
+    ObjectMapper mapper = SparseFields.mapper(new ObjectMapper(), Encounter.class);
+    String json = new String(SparseFields.write(mapper, List.of(encounter),
+        SparseFields.parse("date", allowed)), StandardCharsets.UTF_8);
+
+    assertEquals("[{\"id\":4,\"date\":\"2023-03-23\"}]", json);
+  }
+}
@@ -0,0 +1,39 @@
+package edu.mtc.training.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Date;
+import java.util.TimeZone;
+import org.junit.jupiter.api.Test;
+
+class UtcDatesTest {
+
+  @Test
+  void dayBoundsAreUtcMidnight() {
+    LocalDate day = LocalDate.of(2024, 2, 29);
+    assertEquals(Date.from(Instant.parse("2024-02-29T00:00:00Z")), UtcDates.startOf(day));
+    assertEquals(Date.from(Instant.parse("2024-03-01T00:00:00Z")), UtcDates.endOf(day));
+  }
+
+  @Test
+  void monthBoundsAreUtcMidnight() {
+    YearMonth month = YearMonth.of(2023, 12);
+    assertEquals(Date.from(Instant.parse("2023-12-01T00:00:00Z")), UtcDates.startOf(month));
+    assertEquals(Date.from(Instant.parse("2024-01-01T00:00:00Z")), UtcDates.endOf(month));
+  }
+
+  @Test
+  void boundsDoNotDependOnDefaultZone() {
+    TimeZone zone = TimeZone.getDefault();
+    try {
+      TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Auckland"));
+      assertEquals(Date.from(Instant.parse("2024-03-01T00:00:00Z")),
+          UtcDates.startOf(LocalDate.of(2024, 3, 1)));
+    } finally {
+      TimeZone.setDefault(zone);
+    }
+  }
+}